@@ -0,0 +1,124 @@
+defmodule ChannelSenderEx.Transport.Rest.Cbor do
+  @moduledoc """
+  Minimal CBOR (RFC 8949) decoder for REST request bodies. Covers the data model produced by
+  JSON oriented encoders such as Jackson CBOR: integers, floats, text and byte strings, arrays
+  and maps of definite or indefinite length, booleans and null. Tags are skipped and their
+  content is returned as is.
+  """
+
+  @break 0xFF
+
+  @spec decode(binary(), (String.t() -> term())) :: {:ok, term()} | {:error, atom()}
+  def decode(binary, key_fun \\ &Function.identity/1) when is_binary(binary) do
+    case value(binary, key_fun) do
+      {value, <<>>} -> {:ok, value}
+      {_value, _rest} -> {:error, :trailing_bytes}
+    end
+  catch
+    :throw, {:cbor, reason} -> {:error, reason}
+  end
+
+  defp value(<<major::3, info::5, rest::binary>>, key_fun), do: value(major, info, rest, key_fun)
+  defp value(_, _key_fun), do: throw({:cbor, :unexpected_end})
+
+  defp value(7, 20, rest, _key_fun), do: {false, rest}
+  defp value(7, 21, rest, _key_fun), do: {true, rest}
+  defp value(7, 22, rest, _key_fun), do: {nil, rest}
+  defp value(7, 23, rest, _key_fun), do: {nil, rest}
+  defp value(7, 25, <<half::binary-size(2), rest::binary>>, _key_fun), do: {half_float(half), rest}
+  defp value(7, 26, <<float::float-32, rest::binary>>, _key_fun), do: {float, rest}
+  defp value(7, 27, <<float::float-64, rest::binary>>, _key_fun), do: {float, rest}
+  defp value(7, _info, _rest, _key_fun), do: throw({:cbor, :unsupported_simple_value})
+
+  defp value(2, 31, rest, key_fun), do: chunks(rest, [], key_fun)
+  defp value(3, 31, rest, key_fun), do: chunks(rest, [], key_fun) |> valid_text()
+  defp value(4, 31, rest, key_fun), do: indefinite_array(rest, [], key_fun)
+  defp value(5, 31, rest, key_fun), do: indefinite_map(rest, %{}, key_fun)
+
+  defp value(major, info, rest, key_fun) do
+    {arg, rest} = argument(info, rest)
+
+    case major do
+      0 -> {arg, rest}
+      1 -> {-1 - arg, rest}
+      2 -> bytes(arg, rest)
+      3 -> bytes(arg, rest) |> valid_text()
+      4 -> array(arg, rest, [], key_fun)
+      5 -> map(arg, rest, %{}, key_fun)
+      6 -> value(rest, key_fun)
+    end
+  end
+
+  defp argument(info, rest) when info < 24, do: {info, rest}
+  defp argument(24, <<arg::8, rest::binary>>), do: {arg, rest}
+  defp argument(25, <<arg::16, rest::binary>>), do: {arg, rest}
+  defp argument(26, <<arg::32, rest::binary>>), do: {arg, rest}
+  defp argument(27, <<arg::64, rest::binary>>), do: {arg, rest}
+  defp argument(_info, _rest), do: throw({:cbor, :invalid_argument})
+
+  defp bytes(size, rest) do
+    case rest do
+      <<data::binary-size(size), rest::binary>> -> {data, rest}
+      _ -> throw({:cbor, :unexpected_end})
+    end
+  end
+
+  defp valid_text({text, rest}) do
+    if String.valid?(text), do: {text, rest}, else: throw({:cbor, :invalid_utf8})
+  end
+
+  defp array(0, rest, acc, _key_fun), do: {Enum.reverse(acc), rest}
+
+  defp array(count, rest, acc, key_fun) do
+    {item, rest} = value(rest, key_fun)
+    array(count - 1, rest, [item | acc], key_fun)
+  end
+
+  defp map(0, rest, acc, _key_fun), do: {acc, rest}
+
+  defp map(count, rest, acc, key_fun) do
+    {key, item, rest} = entry(rest, key_fun)
+    map(count - 1, rest, Map.put(acc, key, item), key_fun)
+  end
+
+  defp indefinite_array(<<@break, rest::binary>>, acc, _key_fun), do: {Enum.reverse(acc), rest}
+
+  defp indefinite_array(rest, acc, key_fun) do
+    {item, rest} = value(rest, key_fun)
+    indefinite_array(rest, [item | acc], key_fun)
+  end
+
+  defp indefinite_map(<<@break, rest::binary>>, acc, _key_fun), do: {acc, rest}
+
+  defp indefinite_map(rest, acc, key_fun) do
+    {key, item, rest} = entry(rest, key_fun)
+    indefinite_map(rest, Map.put(acc, key, item), key_fun)
+  end
+
+  defp entry(rest, key_fun) do
+    {key, rest} = value(rest, key_fun)
+    {item, rest} = value(rest, key_fun)
+    key = if is_binary(key), do: key_fun.(key), else: key
+    {key, item, rest}
+  end
+
+  defp chunks(<<@break, rest::binary>>, acc, _key_fun) do
+    {acc |> Enum.reverse() |> IO.iodata_to_binary(), rest}
+  end
+
+  defp chunks(rest, acc, key_fun) do
+    {chunk, rest} = value(rest, key_fun)
+    chunks(rest, [chunk | acc], key_fun)
+  end
+
+  defp half_float(<<sign::1, exponent::5, mantissa::10>>) do
+    magnitude =
+      case exponent do
+        0 -> mantissa * :math.pow(2, -24)
+        31 -> throw({:cbor, :unsupported_float})
+        _ -> (1024 + mantissa) * :math.pow(2, exponent - 25)
+      end
+
+    if sign == 1, do: -magnitude, else: magnitude
+  end
+end
@@ -0,0 +1,45 @@
+defmodule ChannelSenderEx.Transport.Rest.CborParser do
+  @moduledoc """
+  Plug.Parsers parser for `application/cbor` request bodies. Map keys become atoms when the atom
+  already exists, so the fields the controller matches on look the same as with the JSON parser
+  without letting request bodies grow the atom table.
+  """
+  @behaviour Plug.Parsers
+
+  alias ChannelSenderEx.Transport.Rest.Cbor
+
+  @impl true
+  def init(opts), do: opts
+
+  @impl true
+  def parse(conn, "application", "cbor", _params, opts) do
+    case Plug.Conn.read_body(conn, opts) do
+      {:ok, body, conn} -> decode(body, conn)
+      {:more, _data, conn} -> {:error, :too_large, conn}
+      {:error, :timeout} -> raise Plug.TimeoutError
+      {:error, _} -> raise Plug.BadRequestError
+    end
+  end
+
+  def parse(conn, _type, _subtype, _params, _opts), do: {:next, conn}
+
+  defp decode(body, conn) do
+    case Cbor.decode(body, &existing_atom/1) do
+      {:ok, params} when is_map(params) ->
+        {:ok, params, conn}
+
+      {:ok, params} ->
+        {:ok, %{"_cbor" => params}, conn}
+
+      {:error, reason} ->
+        raise Plug.Parsers.ParseError,
+          exception: %ArgumentError{message: "invalid cbor body: #{inspect(reason)}"}
+    end
+  end
+
+  defp existing_atom(key) do
+    String.to_existing_atom(key)
+  rescue
+    ArgumentError -> key
+  end
+end
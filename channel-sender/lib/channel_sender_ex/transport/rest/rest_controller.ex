@@ -5,6 +5,7 @@ defmodule ChannelSenderEx.Transport.Rest.RestController do
   alias ChannelSenderEx.Core.ProtocolMessage
   alias ChannelSenderEx.Core.PubSub.PubSubCore
   alias ChannelSenderEx.Core.Security.ChannelAuthenticator
+  alias ChannelSenderEx.Transport.Rest.CborParser
   alias ChannelSenderEx.Utils.ChannelMetrics
   require OpenTelemetry.Ctx, as: Ctx
   require OpenTelemetry.Tracer, as: Tracer
@@ -24,7 +25,7 @@ defmodule ChannelSenderEx.Transport.Rest.RestController do
   plug(:match)
 
   plug(Plug.Parsers,
-    parsers: [:urlencoded, :json],
+    parsers: [:urlencoded, :json, CborParser],
     json_decoder: {Jason, :decode!, [[keys: :atoms]]}
   )
 
@@ -0,0 +1,81 @@
+defmodule ChannelSenderEx.Transport.Rest.CborTest do
+  use ExUnit.Case
+  import Plug.Test
+  import Plug.Conn
+  import Mock
+
+  alias ChannelSenderEx.Core.PubSub.PubSubCore
+  alias ChannelSenderEx.Transport.Rest.Cbor
+  alias ChannelSenderEx.Transport.Rest.RestController
+
+  @moduletag :capture_log
+  @options RestController.init([])
+
+  test "should decode scalars" do
+    assert {:ok, 10} = Cbor.decode(<<0x0A>>)
+    assert {:ok, 1000} = Cbor.decode(<<0x19, 0x03, 0xE8>>)
+    assert {:ok, -500} = Cbor.decode(<<0x39, 0x01, 0xF3>>)
+    assert {:ok, 1.5} = Cbor.decode(<<0xF9, 0x3E, 0x00>>)
+    assert {:ok, 1.1} = Cbor.decode(<<0xFB, 1.1::float-64>>)
+    assert {:ok, true} = Cbor.decode(<<0xF5>>)
+    assert {:ok, nil} = Cbor.decode(<<0xF6>>)
+    assert {:ok, "áé"} = Cbor.decode(<<0x64, "áé">>)
+  end
+
+  test "should decode definite and indefinite containers" do
+    definite = <<0xA2, 0x61, "a", 0x01, 0x61, "b", 0x82, 0x02, 0x03>>
+    indefinite = <<0xBF, 0x61, "a", 0x01, 0x61, "b", 0x9F, 0x02, 0x03, 0xFF, 0xFF>>
+
+    assert {:ok, %{"a" => 1, "b" => [2, 3]}} = Cbor.decode(definite)
+    assert {:ok, %{"a" => 1, "b" => [2, 3]}} = Cbor.decode(indefinite)
+    assert {:ok, "abcd"} = Cbor.decode(<<0x7F, 0x62, "ab", 0x62, "cd", 0xFF>>)
+  end
+
+  test "should reject malformed input" do
+    assert {:error, :unexpected_end} = Cbor.decode(<<0x65, "ab">>)
+    assert {:error, :trailing_bytes} = Cbor.decode(<<0x01, 0x02>>)
+    assert {:error, :invalid_utf8} = Cbor.decode(<<0x61, 0xFF>>)
+  end
+
+  test "should deliver message sent as cbor" do
+    body =
+      encode(%{
+        "channel_ref" => "channel_ref",
+        "message_id" => "message_id",
+        "correlation_id" => "correlation_id",
+        "message_data" => %{"code" => "100", "title" => "title"},
+        "event_name" => "event_name"
+      })
+
+    with_mock PubSubCore, deliver_to_channel: fn _channel_ref, _msg -> :accepted_connected end do
+      conn =
+        conn(:post, "/ext/channel/deliver_message", body)
+        |> put_req_header("content-type", "application/cbor")
+
+      conn = RestController.call(conn, @options)
+
+      assert conn.status == 202
+      assert %{"result" => "Ok"} = Jason.decode!(conn.resp_body)
+    end
+  end
+
+  test "should answer bad request on malformed cbor" do
+    conn =
+      conn(:post, "/ext/channel/deliver_message", <<0xBF, 0x61>>)
+      |> put_req_header("content-type", "application/cbor")
+
+    assert {400, _headers, _body} =
+             assert_error_sent(400, fn -> RestController.call(conn, @options) end)
+  end
+
+  # Jackson writes objects as indefinite length maps, so does this helper
+  defp encode(map) when is_map(map) do
+    entries = Enum.map(map, fn {key, value} -> [encode(key), encode(value)] end)
+    IO.iodata_to_binary([0xBF, entries, 0xFF])
+  end
+
+  defp encode(text) when is_binary(text) and byte_size(text) < 24,
+    do: <<0x60 + byte_size(text), text::binary>>
+
+  defp encode(text) when is_binary(text), do: <<0x78, byte_size(text), text::binary>>
+end
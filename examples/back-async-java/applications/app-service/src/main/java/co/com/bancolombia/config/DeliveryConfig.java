@@ -0,0 +1,90 @@
+package co.com.bancolombia.config;
+
+import co.com.bancolombia.metrics.DelayedDeliveryMetrics;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import co.com.bancolombia.model.async.gateways.DeliveryOutbox;
+import co.com.bancolombia.usecase.delivery.DelayedDeliveryScheduler;
+import co.com.bancolombia.usecase.delivery.DelayedDeliverySettings;
+import co.com.bancolombia.usecase.delivery.DeliveryLanes;
+import co.com.bancolombia.usecase.delivery.ExecutionMode;
+import co.com.bancolombia.usecase.delivery.OverflowPolicy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.HttpResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DeliveryConfig {
+
+    @Value("${delivery.scheduler.max-concurrency:256}")
+    private int maxConcurrency;
+    @Value("${delivery.scheduler.queue-capacity:100000}")
+    private int queueCapacity;
+    @Value("${delivery.scheduler.overflow-policy:REJECT}")
+    private OverflowPolicy overflowPolicy;
+    @Value("${delivery.scheduler.block-timeout:1s}")
+    private Duration blockTimeout;
+    @Value("${delivery.scheduler.drain-timeout:30s}")
+    private Duration drainTimeout;
+    @Value("${delivery.scheduler.tick-duration:10ms}")
+    private Duration tickDuration;
+    @Value("${delivery.scheduler.ticks-per-wheel:512}")
+    private int ticksPerWheel;
+    @Value("${delivery.scheduler.max-batch-size:100}")
+    private int maxBatchSize;
+    @Value("${delivery.scheduler.max-retries:5}")
+    private int maxRetries;
+    @Value("${delivery.scheduler.retry-backoff:200ms}")
+    private Duration retryBackoff;
+    @Value("${delivery.scheduler.execution-mode:BOUNDED_ELASTIC}")
+    private ExecutionMode executionMode;
+    @Value("${delivery.scheduler.partitions:0}")
+    private int partitions;
+    @Value("${delivery.scheduler.partition-on-event-loops:false}")
+    private boolean partitionOnEventLoops;
+
+    @Bean(destroyMethod = "close")
+    public DelayedDeliveryScheduler delayedDeliveryScheduler(AsyncDataFlowGateway asyncDataFlowGateway,
+                                                             ObjectProvider<DeliveryOutbox> outbox) {
+        DelayedDeliverySettings settings = DelayedDeliverySettings.builder()
+                .maxConcurrency(maxConcurrency)
+                .queueCapacity(queueCapacity)
+                .overflowPolicy(overflowPolicy)
+                .blockTimeout(blockTimeout)
+                .drainTimeout(drainTimeout)
+                .tickDuration(tickDuration)
+                .ticksPerWheel(ticksPerWheel)
+                .maxBatchSize(maxBatchSize)
+                .maxRetries(maxRetries)
+                .retryBackoff(retryBackoff)
+                .executionMode(executionMode)
+                .partitions(partitions)
+                .build();
+        if (executionMode != ExecutionMode.PARTITIONED) {
+            return new DelayedDeliveryScheduler(asyncDataFlowGateway, settings, outbox.getIfAvailable());
+        }
+        DeliveryLanes lanes = partitionOnEventLoops
+                ? DeliveryLanes.on(clientEventLoops())
+                : DeliveryLanes.dedicated(settings.effectivePartitions());
+        return new DelayedDeliveryScheduler(asyncDataFlowGateway, settings, outbox.getIfAvailable(), lanes);
+    }
+
+    // calls start on the loops, connections taken from the shared pool may still be served by another loop
+    private static List<Scheduler> clientEventLoops() {
+        List<Scheduler> loops = new ArrayList<>();
+        HttpResources.get().onClient(true).forEach(loop -> loops.add(Schedulers.fromExecutor(loop)));
+        return loops;
+    }
+
+    @Bean
+    public DelayedDeliveryMetrics delayedDeliveryMetrics(DelayedDeliveryScheduler delayedDeliveryScheduler) {
+        return new DelayedDeliveryMetrics(delayedDeliveryScheduler);
+    }
+}
@@ -0,0 +1,164 @@
+package co.com.bancolombia.config;
+
+import co.com.bancolombia.consumer.DirectAdapter;
+import co.com.bancolombia.events.BridgeAdapter;
+import co.com.bancolombia.metrics.AdaptiveLimitMetrics;
+import co.com.bancolombia.metrics.ConflationMetrics;
+import co.com.bancolombia.metrics.DeduplicationMetrics;
+import co.com.bancolombia.metrics.MeteredAsyncDataFlowGateway;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import co.com.bancolombia.resilience.ResilientAsyncDataFlowGateway;
+import co.com.bancolombia.usecase.gateway.AdaptiveLimitGateway;
+import co.com.bancolombia.usecase.gateway.AdaptiveLimitSettings;
+import co.com.bancolombia.usecase.gateway.CachingCredentialsGateway;
+import co.com.bancolombia.usecase.gateway.ConflatingGateway;
+import co.com.bancolombia.usecase.gateway.ConflationSettings;
+import co.com.bancolombia.usecase.gateway.DeduplicatingGateway;
+import co.com.bancolombia.usecase.gateway.DeduplicationSettings;
+import co.com.bancolombia.usecase.gateway.FairDeliveryGateway;
+import co.com.bancolombia.usecase.gateway.FairDeliverySettings;
+import co.com.bancolombia.usecase.gateway.LimitPolicy;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class GatewayConfig {
+
+    @Value("${adapter.reply-mode}")
+    private String replyMode;
+
+    @Value("${adapter.resilience.enabled:true}")
+    private boolean resilienceEnabled;
+
+    @Value("${adapter.adaptive-limit.enabled:false}")
+    private boolean adaptiveLimitEnabled;
+    @Value("${adapter.adaptive-limit.initial-limit:20}")
+    private int initialLimit;
+    @Value("${adapter.adaptive-limit.min-limit:1}")
+    private int minLimit;
+    @Value("${adapter.adaptive-limit.max-limit:1000}")
+    private int maxLimit;
+    @Value("${adapter.adaptive-limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+    @Value("${adapter.adaptive-limit.latency-threshold:500ms}")
+    private Duration latencyThreshold;
+    @Value("${adapter.adaptive-limit.policy:REJECT}")
+    private LimitPolicy limitPolicy;
+    @Value("${adapter.adaptive-limit.max-queued:1000}")
+    private int limitMaxQueued;
+    @Value("${adapter.adaptive-limit.queue-timeout:1s}")
+    private Duration limitQueueTimeout;
+
+    @Value("${adapter.credentials-cache.enabled:false}")
+    private boolean credentialsCacheEnabled;
+    @Value("${adapter.credentials-cache.ttl:30s}")
+    private Duration credentialsCacheTtl;
+    @Value("${adapter.credentials-cache.max-entries:10000}")
+    private int credentialsCacheMaxEntries;
+
+    @Value("${adapter.fairness.enabled:false}")
+    private boolean fairnessEnabled;
+    @Value("${adapter.fairness.max-concurrency:256}")
+    private int fairnessMaxConcurrency;
+    @Value("${adapter.fairness.max-queued:10000}")
+    private int fairnessMaxQueued;
+    @Value("${adapter.fairness.interactive-weight:8}")
+    private int interactiveWeight;
+    @Value("${adapter.fairness.bulk-weight:1}")
+    private int bulkWeight;
+    @Value("${adapter.fairness.bulk-event-names:}")
+    private Set<String> bulkEventNames;
+
+    @Value("${adapter.conflation.enabled:false}")
+    private boolean conflationEnabled;
+    @Value("${adapter.conflation.flush-interval:100ms}")
+    private Duration conflationFlushInterval;
+    @Value("${adapter.conflation.event-names:}")
+    private Set<String> conflationEventNames;
+
+    @Value("${adapter.dedup.enabled:false}")
+    private boolean dedupEnabled;
+    @Value("${adapter.dedup.exact-window:1m}")
+    private Duration dedupExactWindow;
+    @Value("${adapter.dedup.exact-max-entries:100000}")
+    private int dedupExactMaxEntries;
+    @Value("${adapter.dedup.filter-window:10m}")
+    private Duration dedupFilterWindow;
+    @Value("${adapter.dedup.filter-expected-insertions:1000000}")
+    private long dedupFilterExpectedInsertions;
+    @Value("${adapter.dedup.filter-false-positive-rate:0.0001}")
+    private double dedupFilterFalsePositiveRate;
+
+    @Bean
+    @Primary
+    public AsyncDataFlowGateway asyncDataFlowGateway(ObjectProvider<DirectAdapter> directAdapter,
+                                                     ObjectProvider<BridgeAdapter> bridgeAdapter,
+                                                     MeterRegistry meterRegistry,
+                                                     CircuitBreakerRegistry circuitBreakers,
+                                                     BulkheadRegistry bulkheads,
+                                                     RateLimiterRegistry rateLimiters) {
+        AsyncDataFlowGateway gateway = new MeteredAsyncDataFlowGateway(
+                directAdapter.getIfAvailable(bridgeAdapter::getObject), meterRegistry, replyMode);
+        if (resilienceEnabled) {
+            gateway = new ResilientAsyncDataFlowGateway(gateway, circuitBreakers, bulkheads, rateLimiters);
+        }
+        if (adaptiveLimitEnabled) {
+            AdaptiveLimitGateway limited = new AdaptiveLimitGateway(gateway, AdaptiveLimitSettings.builder()
+                    .initialLimit(initialLimit)
+                    .minLimit(minLimit)
+                    .maxLimit(maxLimit)
+                    .backoffRatio(backoffRatio)
+                    .latencyThreshold(latencyThreshold)
+                    .policy(limitPolicy)
+                    .maxQueued(limitMaxQueued)
+                    .queueTimeout(limitQueueTimeout)
+                    .build());
+            new AdaptiveLimitMetrics(limited).bindTo(meterRegistry);
+            gateway = limited;
+        }
+        if (fairnessEnabled) {
+            gateway = new FairDeliveryGateway(gateway, FairDeliverySettings.builder()
+                    .maxConcurrency(fairnessMaxConcurrency)
+                    .maxQueued(fairnessMaxQueued)
+                    .interactiveWeight(interactiveWeight)
+                    .bulkWeight(bulkWeight)
+                    .bulkEventNames(bulkEventNames)
+                    .build());
+        }
+        // outside the fair queue, so superseded updates never take a place in it
+        if (conflationEnabled) {
+            ConflatingGateway conflating = new ConflatingGateway(gateway, ConflationSettings.builder()
+                    .flushInterval(conflationFlushInterval)
+                    .eventNames(conflationEventNames)
+                    .build());
+            new ConflationMetrics(conflating).bindTo(meterRegistry);
+            gateway = conflating;
+        }
+        // outside the fair queue, so duplicates never take a place in it
+        if (dedupEnabled) {
+            DeduplicatingGateway deduplicating = new DeduplicatingGateway(gateway, DeduplicationSettings.builder()
+                    .exactWindow(dedupExactWindow)
+                    .exactMaxEntries(dedupExactMaxEntries)
+                    .filterWindow(dedupFilterWindow)
+                    .filterExpectedInsertions(dedupFilterExpectedInsertions)
+                    .filterFalsePositiveRate(dedupFilterFalsePositiveRate)
+                    .build());
+            new DeduplicationMetrics(deduplicating).bindTo(meterRegistry);
+            gateway = deduplicating;
+        }
+        if (credentialsCacheEnabled) {
+            gateway = new CachingCredentialsGateway(gateway, credentialsCacheTtl, credentialsCacheMaxEntries);
+        }
+        return gateway;
+    }
+}
@@ -1,7 +1,6 @@
 package co.com.bancolombia.config;
 
 
-import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,7 +10,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 import static io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -29,31 +33,84 @@ public class RestConsumerConfig {
     private int timeout;
     @Value("${adapter.reply-mode}")
     private String mode;
+    @Value("${adapter.restconsumer.protocol:HTTP11}")
+    private HttpProtocol protocol;
+
+    @Value("${adapter.restconsumer.pool.max-connections:500}")
+    private int maxConnections;
+    @Value("${adapter.restconsumer.pool.pending-acquire-max-count:1000}")
+    private int pendingAcquireMaxCount;
+    @Value("${adapter.restconsumer.pool.pending-acquire-timeout:2s}")
+    private Duration pendingAcquireTimeout;
+    @Value("${adapter.restconsumer.pool.max-idle-time:30s}")
+    private Duration maxIdleTime;
+    @Value("${adapter.restconsumer.pool.max-life-time:5m}")
+    private Duration maxLifeTime;
+    @Value("${adapter.restconsumer.pool.evict-in-background:30s}")
+    private Duration evictInBackground;
+    @Value("${adapter.restconsumer.pool.leasing-strategy:LIFO}")
+    private LeasingStrategy leasingStrategy;
+    @Value("${adapter.restconsumer.pool.max-concurrent-streams:100}")
+    private long maxConcurrentStreams;
+    @Value("${adapter.restconsumer.pool.metrics-enabled:true}")
+    private boolean poolMetricsEnabled;
 
     @Bean
-    public WebClient getWebClient() {
+    public WebClient getWebClient(ConnectionProvider channelSenderConnectionProvider) {
         String resolvedUrl = BRIDGE.equals(mode) ? urlBridge : url;
         return WebClient.builder()
                 .baseUrl(resolvedUrl)
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
-                .clientConnector(getClientHttpConnector())
+                .clientConnector(getClientHttpConnector(channelSenderConnectionProvider))
                 .build();
     }
 
-    private ClientHttpConnector getClientHttpConnector() {
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider channelSenderConnectionProvider() {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("channel-sender")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInBackground)
+                .metrics(poolMetricsEnabled);
+        if (protocol == HttpProtocol.H2C) {
+            // h2c multiplexes requests as streams, so the pool is sized in streams per connection
+            builder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(maxConnections)
+                    .maxConcurrentStreams(maxConcurrentStreams)
+                    .build());
+        }
+        if (leasingStrategy == LeasingStrategy.LIFO) {
+            builder.lifo();
+        } else {
+            builder.fifo();
+        }
+        log.info("Channel sender connection pool: protocol={}, maxConnections={}, leasing={}",
+                protocol, maxConnections, leasingStrategy);
+        return builder.build();
+    }
+
+    private ClientHttpConnector getClientHttpConnector(ConnectionProvider connectionProvider) {
         /*
         IF YO REQUIRE APPEND SSL CERTIFICATE SELF SIGNED
         SslContext sslContext = SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE)
                 .build();*/
-        return new ReactorClientHttpConnector(HttpClient.create()
+        return new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
                 //.secure(sslContextSpec -> sslContextSpec.sslContext(sslContext))
+                .protocol(protocol)
                 .compress(true)
                 .keepAlive(true)
                 .option(CONNECT_TIMEOUT_MILLIS, timeout)
-                .doOnConnected(connection -> {
-                    connection.addHandlerLast(new ReadTimeoutHandler(timeout, MILLISECONDS));
-                    connection.addHandlerLast(new WriteTimeoutHandler(timeout, MILLISECONDS));
-                }));
+                // response timeout is applied per request instead of a read timeout handler per connection
+                .responseTimeout(Duration.ofMillis(timeout))
+                .doOnConnected(connection ->
+                        connection.addHandlerLast(new WriteTimeoutHandler(timeout, MILLISECONDS))));
+    }
+
+    public enum LeasingStrategy {
+        FIFO, LIFO
     }
 
 }
@@ -0,0 +1,152 @@
+package co.com.bancolombia.config;
+
+import co.com.bancolombia.consumer.DirectAdapter;
+import co.com.bancolombia.events.BridgeAdapter;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.Message;
+import co.com.bancolombia.model.async.gateways.IdGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Warms up the delivery path before the pod takes traffic: opens connections to the channel sender by
+ * calling its health path concurrently, and runs the adapter serialization with synthetic deliveries so
+ * it is compiled by the JIT. Runners finish before the application is ready, so the readiness probe
+ * passes once the warm-up is done or its budget runs out; liveness is not affected.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "adapter.warmup.enabled", havingValue = "true")
+public class WarmUpRunner implements ApplicationRunner {
+    private final WebClient client;
+    private final ObjectProvider<DirectAdapter> directAdapter;
+    private final ObjectProvider<BridgeAdapter> bridgeAdapter;
+    private final IdGenerator idGenerator;
+
+    @Value("${adapter.warmup.connections:16}")
+    private int connections;
+    @Value("${adapter.warmup.iterations:20000}")
+    private int iterations;
+    @Value("${adapter.warmup.budget:20s}")
+    private Duration budget;
+    @Value("${adapter.warmup.health-path:/health}")
+    private String healthPath;
+    @Value("${adapter.restconsumer.url}")
+    private String url;
+    @Value("${adapter.restconsumer.url-bridge}")
+    private String urlBridge;
+    @Value("${adapter.reply-mode}")
+    private String mode;
+    @Value("${adapter.restconsumer.routing.nodes:}")
+    private List<String> nodes;
+
+    public WarmUpRunner(WebClient client, ObjectProvider<DirectAdapter> directAdapter,
+                        ObjectProvider<BridgeAdapter> bridgeAdapter, IdGenerator idGenerator) {
+        this.client = client;
+        this.directAdapter = directAdapter;
+        this.bridgeAdapter = bridgeAdapter;
+        this.idGenerator = idGenerator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger serialized = new AtomicInteger();
+        long deadline = start + budget.toNanos();
+        Mono.when(primeConnections(opened), serializeDeliveries(serialized, deadline))
+                .timeout(budget)
+                .onErrorResume(error -> {
+                    if (error instanceof TimeoutException) {
+                        log.warn("Warm-up budget of {} exhausted, accepting traffic anyway", budget);
+                    } else {
+                        log.warn("Warm-up failed: {}", error.getMessage());
+                    }
+                    return Mono.empty();
+                })
+                .block();
+        log.info("Warm-up finished in {} ms: {} channel sender calls answered, {} deliveries serialized",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), opened.get(), serialized.get());
+    }
+
+    // concurrent calls make the pool open one connection each, a failing sender only costs the connect timeout
+    private Mono<Void> primeConnections(AtomicInteger opened) {
+        return Flux.fromIterable(baseUrls())
+                .map(base -> URI.create(base).resolve(healthPath))
+                .flatMap(target -> Flux.range(0, connections)
+                        .flatMap(i -> client.get().uri(target)
+                                .retrieve()
+                                .toBodilessEntity()
+                                .doOnSuccess(ignored -> opened.incrementAndGet())
+                                .onErrorResume(error -> Mono.empty()), connections))
+                .then();
+    }
+
+    private Mono<Void> serializeDeliveries(AtomicInteger serialized, long deadline) {
+        Consumer<Delivery> adapter = warmUpTarget();
+        if (adapter == null) {
+            return Mono.empty();
+        }
+        return Mono.<Void>fromRunnable(() -> {
+                    for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+                        adapter.accept(syntheticDelivery(i));
+                        serialized.incrementAndGet();
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Consumer<Delivery> warmUpTarget() {
+        DirectAdapter direct = directAdapter.getIfAvailable();
+        if (direct != null) {
+            return direct::warmUp;
+        }
+        BridgeAdapter bridge = bridgeAdapter.getIfAvailable();
+        return bridge != null ? bridge::warmUp : null;
+    }
+
+    private List<String> baseUrls() {
+        List<String> configured = nodes.stream().map(String::trim).filter(node -> !node.isEmpty()).distinct().toList();
+        if (!configured.isEmpty() && !RestConsumerConfig.BRIDGE.equals(mode)) {
+            return configured;
+        }
+        return List.of(RestConsumerConfig.BRIDGE.equals(mode) ? urlBridge : url);
+    }
+
+    private Delivery syntheticDelivery(int i) {
+        String channelRef = "warmup-channel-" + (i % 64);
+        return Delivery.builder()
+                .channelRef(channelRef)
+                .userRef("warmup-user-" + (i % 64))
+                .message(DeliverMessage.builder()
+                        .channelRef(channelRef)
+                        .messageId(idGenerator.newId())
+                        .CorrelationId(idGenerator.newId())
+                        .eventName("businessEvent")
+                        .messageData(Message.builder()
+                                .code("100")
+                                .title("Warm-up")
+                                .detail("Synthetic delivery " + i)
+                                .severity("INFO")
+                                .build())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,28 @@
+#!/bin/sh
+# Training run for the JDK AOT cache: starts the application, sends the requests whose code should be
+# cached already linked and profiled, then stops it; the JVM writes the cache when it exits.
+# Usage: aot-training.sh <cache file> [jvm options...]
+set -eu
+
+CACHE=$1
+shift
+
+java -XX:AOTCacheOutput="$CACHE" "$@" -jar back-async.jar &
+PID=$!
+
+for i in $(seq 1 60); do
+  if wget -q -O /dev/null http://localhost:8080/actuator/health/readiness; then
+    break
+  fi
+  sleep 1
+done
+
+# short delays, so the scheduled deliveries are due (and fail fast, there is no sender) before shutdown
+for i in $(seq 1 500); do
+  wget -q -O /dev/null \
+    "http://localhost:8080/api/business?delay=10&channel_ref=training&user_ref=training&correlationId=training-$i" || true
+done
+
+kill -TERM "$PID"
+wait "$PID" || true
+test -s "$CACHE"
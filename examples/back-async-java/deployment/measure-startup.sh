@@ -0,0 +1,29 @@
+#!/usr/bin/env bash
+# Measures, for a container image, the time from `docker run` until the readiness probe answers and the
+# latency of the first business request, next to the startup time reported by Spring.
+# Usage: measure-startup.sh <image> [runs] [reply mode]
+set -euo pipefail
+
+IMAGE=$1
+RUNS=${2:-5}
+REPLY_MODE=${3:-DIRECT}
+
+now_ms() {
+  date +%s%3N
+}
+
+printf '%-4s %12s %14s %16s\n' run ready_ms spring_start_s first_request_ms
+for run in $(seq 1 "$RUNS"); do
+  start=$(now_ms)
+  cid=$(docker run -d -p 127.0.0.1::8080 -e REPLY_MODE="$REPLY_MODE" "$IMAGE")
+  port=$(docker port "$cid" 8080 | head -1 | cut -d: -f2)
+  until curl -fs -o /dev/null "http://127.0.0.1:$port/actuator/health/readiness"; do
+    sleep 0.02
+  done
+  ready=$(( $(now_ms) - start ))
+  first=$(curl -s -o /dev/null -w '%{time_total}' \
+    "http://127.0.0.1:$port/api/business?delay=60000&channel_ref=probe&user_ref=probe&correlationId=probe-$run")
+  spring=$(docker logs "$cid" 2>&1 | sed -n 's/.*Started MainApplication in \([0-9.]*\) seconds.*/\1/p' | head -1)
+  docker rm -f "$cid" > /dev/null
+  printf '%-4s %12s %14s %16.1f\n' "$run" "$ready" "${spring:-?}" "$(echo "$first * 1000" | bc)"
+done
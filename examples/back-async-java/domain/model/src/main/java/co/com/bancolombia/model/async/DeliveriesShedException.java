@@ -0,0 +1,67 @@
+package co.com.bancolombia.model.async;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Overload of a batch that was sent in parts: only the listed deliveries were shed and never reached
+ * the sender, the rest of the batch was handled. A caller retrying shed calls retries these alone.
+ */
+public class DeliveriesShedException extends GatewayOverloadedException {
+    private final transient List<Delivery> shed;
+
+    public DeliveriesShedException(String message, List<Delivery> shed) {
+        super(message);
+        this.shed = List.copyOf(shed);
+    }
+
+    public List<Delivery> getShed() {
+        return shed;
+    }
+
+    /**
+     * Sends the parts of a batch concurrently and waits for all of them. When parts were shed the error
+     * names the deliveries of those parts only, with the failures of other parts suppressed; otherwise
+     * the first failure is returned with the rest suppressed.
+     */
+    public static Mono<Void> whenParts(List<List<Delivery>> parts, Function<List<Delivery>, Mono<Void>> send) {
+        if (parts.size() == 1) {
+            return send.apply(parts.getFirst());
+        }
+        return Flux.fromIterable(parts)
+                .flatMap(part -> Mono.defer(() -> send.apply(part))
+                        .then(Mono.<PartFailure>empty())
+                        .onErrorResume(error -> Mono.just(new PartFailure(part, error))), Integer.MAX_VALUE)
+                .collectList()
+                .flatMap(DeliveriesShedException::failureOf);
+    }
+
+    private static Mono<Void> failureOf(List<PartFailure> failures) {
+        if (failures.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Delivery> shed = new ArrayList<>();
+        List<Throwable> others = new ArrayList<>();
+        for (PartFailure failure : failures) {
+            if (failure.error() instanceof DeliveriesShedException partial) {
+                shed.addAll(partial.getShed());
+            } else if (failure.error() instanceof GatewayOverloadedException) {
+                shed.addAll(failure.part());
+            } else {
+                others.add(failure.error());
+            }
+        }
+        Throwable error = shed.isEmpty()
+                ? others.removeFirst()
+                : new DeliveriesShedException(shed.size() + " deliveries of the batch shed", shed);
+        others.forEach(error::addSuppressed);
+        return Mono.error(error);
+    }
+
+    private record PartFailure(List<Delivery> part, Throwable error) {
+    }
+}
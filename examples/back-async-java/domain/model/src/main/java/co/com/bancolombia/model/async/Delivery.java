@@ -0,0 +1,12 @@
+package co.com.bancolombia.model.async;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder(toBuilder = true)
+@Getter
+public class Delivery {
+    private final String channelRef;
+    private final String userRef;
+    private final DeliverMessage message;
+}
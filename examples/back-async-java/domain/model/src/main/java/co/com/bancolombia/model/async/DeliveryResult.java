@@ -0,0 +1,24 @@
+package co.com.bancolombia.model.async;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class DeliveryResult {
+    private final Delivery delivery;
+    private final Throwable error;
+
+    public static DeliveryResult delivered(Delivery delivery) {
+        return new DeliveryResult(delivery, null);
+    }
+
+    public static DeliveryResult failed(Delivery delivery, Throwable error) {
+        return new DeliveryResult(delivery, error);
+    }
+
+    public boolean isDelivered() {
+        return error == null;
+    }
+}
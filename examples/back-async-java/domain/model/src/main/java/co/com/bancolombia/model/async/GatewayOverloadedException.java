@@ -0,0 +1,11 @@
+package co.com.bancolombia.model.async;
+
+public class GatewayOverloadedException extends RuntimeException {
+    public GatewayOverloadedException(String message) {
+        super(message);
+    }
+
+    public GatewayOverloadedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
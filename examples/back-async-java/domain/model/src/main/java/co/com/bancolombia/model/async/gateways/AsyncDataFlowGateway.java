@@ -2,10 +2,43 @@ package co.com.bancolombia.model.async.gateways;
 
 import co.com.bancolombia.model.async.Credentials;
 import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Objects;
+
 public interface AsyncDataFlowGateway {
     Mono<Credentials> generateCredentials(String user_identifier);
 
     Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message);
+
+    /**
+     * Sends every delivery on its own. A shed delivery does not fail the others, the error names the
+     * shed ones with a {@link DeliveriesShedException}.
+     */
+    default Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        return DeliveriesShedException.whenParts(deliveries.stream().map(List::of).toList(), part ->
+                deliverMessage(part.getFirst().getChannelRef(), part.getFirst().getUserRef(),
+                        part.getFirst().getMessage()));
+    }
+
+    /**
+     * Delivers a stream of messages as it is requested, emitting one result per delivery. Deliveries
+     * to the same channelRef are sent one after another in stream order; different channels are sent
+     * in parallel, so results come out in completion order. A failed delivery is reported in its
+     * result and does not end the stream.
+     */
+    default Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return deliveries
+                .groupBy(delivery -> Objects.toString(delivery.getChannelRef(), ""))
+                .flatMap(channel -> channel.concatMap(delivery -> deliverMessage(delivery.getChannelRef(),
+                                delivery.getUserRef(), delivery.getMessage())
+                                .thenReturn(DeliveryResult.delivered(delivery))
+                                .onErrorResume(error -> Mono.just(DeliveryResult.failed(delivery, error)))),
+                        Integer.MAX_VALUE);
+    }
 }
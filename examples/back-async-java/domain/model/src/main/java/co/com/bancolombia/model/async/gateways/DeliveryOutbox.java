@@ -0,0 +1,28 @@
+package co.com.bancolombia.model.async.gateways;
+
+import co.com.bancolombia.model.async.Delivery;
+
+/**
+ * Durable store for deliveries that are waiting for their delay to elapse. The operations are
+ * synchronous because the store is local to the instance; positions are opaque handles returned
+ * by {@link #append} and stay valid until the entry is acknowledged.
+ */
+public interface DeliveryOutbox {
+
+    long append(Delivery delivery, long dueAtMillis);
+
+    Delivery read(long position);
+
+    void acknowledge(long position);
+
+    /**
+     * Reports every entry that was appended and not acknowledged, meant to be called once on
+     * startup before anything else is appended.
+     */
+    void replay(PendingEntryConsumer consumer);
+
+    @FunctionalInterface
+    interface PendingEntryConsumer {
+        void accept(long position, long dueAtMillis);
+    }
+}
@@ -0,0 +1,9 @@
+package co.com.bancolombia.model.async.gateways;
+
+/**
+ * Source of the message, correlation and event ids generated on the request path.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+    String newId();
+}
@@ -2,49 +2,54 @@ package co.com.bancolombia.usecase.business;
 
 import co.com.bancolombia.model.async.Credentials;
 import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
 import co.com.bancolombia.model.async.Message;
 import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import co.com.bancolombia.model.async.gateways.IdGenerator;
+import co.com.bancolombia.usecase.delivery.DelayedDeliveryScheduler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
-import java.util.UUID;
 
 @Log
 @RequiredArgsConstructor
 public class BusinessUseCase {
     private final AsyncDataFlowGateway asyncDataFlowGateway;
+    private final DelayedDeliveryScheduler deliveryScheduler;
+    private final IdGenerator idGenerator;
 
     public Mono<Credentials> generateCredentials(String userIdentifier) {
         return asyncDataFlowGateway.generateCredentials(userIdentifier);
     }
 
+    public Flux<DeliveryResult> deliverReplies(Flux<Delivery> replies) {
+        return asyncDataFlowGateway.deliverMessages(replies);
+    }
+
     public Mono<Object> asyncBusinessFlow(String delay, String channelRef, String userRef, String correlationId) {
-        log.info("Delaying async flow message: " + channelRef);
-        Mono.delay(Duration.ofMillis(Integer.parseInt(delay)))
-                .then(Mono.defer(() -> {
-                    log.info("Delivering async flow message: " + channelRef);
-                    DeliverMessage deliverMessage = DeliverMessage.builder()
-                            .messageId(UUID.randomUUID().toString())
-                            .CorrelationId(correlationId)
-                            .messageData(Message.builder()
-                                    .code("100")
-                                    .title("process after " + delay)
-                                    .detail("response for id:" + correlationId)
-                                    .severity("INFO")
-                                    .build())
-                            .channelRef(channelRef)
-                            .eventName("businessEvent")
-                            .build();
-
-                    return asyncDataFlowGateway.deliverMessage(channelRef, userRef, deliverMessage)
-                            .doOnSuccess(ignored -> log.info("Async flow message delivered: " + channelRef));
-
-                }))
-                .subscribeOn(Schedulers.boundedElastic())
-                .subscribe();
-        return Mono.empty();
+        return scheduleBusinessFlow(Duration.ofMillis(Integer.parseInt(delay)), channelRef, userRef, correlationId)
+                .then(Mono.empty());
+    }
+
+    public Mono<Void> scheduleBusinessFlow(Duration delay, String channelRef, String userRef, String correlationId) {
+        log.info(() -> "Delaying async flow message: " + channelRef);
+        DeliverMessage deliverMessage = DeliverMessage.builder()
+                .messageId(idGenerator.newId())
+                .CorrelationId(correlationId)
+                .messageData(Message.builder()
+                        .code("100")
+                        .title("process after " + delay.toMillis())
+                        .detail("response for id:" + correlationId)
+                        .severity("INFO")
+                        .build())
+                .channelRef(channelRef)
+                .eventName("businessEvent")
+                .build();
+
+        return deliveryScheduler.schedule(delay, channelRef, userRef, deliverMessage);
     }
 }
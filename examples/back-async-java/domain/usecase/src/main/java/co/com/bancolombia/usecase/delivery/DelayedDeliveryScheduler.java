@@ -0,0 +1,508 @@
+package co.com.bancolombia.usecase.delivery;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import co.com.bancolombia.model.async.gateways.DeliveryOutbox;
+import lombok.extern.java.Log;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Holds delayed deliveries in a {@link HashedTimingWheel} until they are due and sends every expired
+ * tick batch through the gateway, starting batches only while the deliveries in flight stay within the
+ * max concurrency. Accepted deliveries are capped by the queue capacity; what happens beyond that is
+ * decided by the configured {@link OverflowPolicy}. Batches the gateway sheds with a
+ * {@link GatewayOverloadedException} never reached the sender, so their deliveries go back to the wheel
+ * with an exponential backoff, keeping their slots, until the retries run out. A gateway that sends a
+ * batch in parts names the shed ones with a {@link DeliveriesShedException}, and only those go back.
+ * <p>
+ * With a {@link DeliveryOutbox} the deliveries are written to it and only their positions are kept on the
+ * heap; an entry is acknowledged once its delivery was attempted, and entries left over by a previous
+ * instance are scheduled again on startup.
+ * <p>
+ * In {@link ExecutionMode#PARTITIONED} mode every channelRef is hashed to one of the {@link DeliveryLanes}
+ * and due batches are split by lane, so each channel's deliveries are always started by the same thread.
+ * Only the start is confined: the gateway decorators keep their shared state, and outbox reads for
+ * non-blocking lanes run on the workers.
+ */
+@Log
+public class DelayedDeliveryScheduler implements AutoCloseable {
+    private static final Duration DRAIN_POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final AsyncDataFlowGateway gateway;
+    private final DelayedDeliverySettings settings;
+    private final DeliveryOutbox outbox;
+    private final Scheduler timer;
+    private final Scheduler workers;
+    private final HashedTimingWheel<PendingDelivery> wheel;
+    // overflow candidates of DROP_OLDEST in arrival order, entries leave it as soon as they are claimed
+    private final Set<PendingDelivery> pending = new LinkedHashSet<>();
+    private final Queue<Sinks.Empty<Void>> waiters = new ConcurrentLinkedQueue<>();
+    // expired batches waiting for in-flight capacity, started by whoever holds the drain
+    private final Queue<List<PendingDelivery>> due = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger dueWip = new AtomicInteger();
+    private final Disposable.Composite running = Disposables.composite();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final Disposable ticker;
+    private final boolean ownsTimer;
+    private final DeliveryLanes lanes;
+    private volatile boolean accepting = true;
+    private volatile boolean stopped;
+
+    public DelayedDeliveryScheduler(AsyncDataFlowGateway gateway, DelayedDeliverySettings settings) {
+        this(gateway, settings, null);
+    }
+
+    public DelayedDeliveryScheduler(AsyncDataFlowGateway gateway, DelayedDeliverySettings settings,
+                                    DeliveryOutbox outbox) {
+        this(gateway, settings, outbox, settings.getExecutionMode() == ExecutionMode.PARTITIONED
+                ? DeliveryLanes.dedicated(settings.effectivePartitions()) : null);
+    }
+
+    public DelayedDeliveryScheduler(AsyncDataFlowGateway gateway, DelayedDeliverySettings settings,
+                                    DeliveryOutbox outbox, DeliveryLanes lanes) {
+        this(gateway, settings, outbox, Schedulers.newSingle("delivery-wheel", true),
+                Schedulers.boundedElastic(), true, lanes);
+    }
+
+    DelayedDeliveryScheduler(AsyncDataFlowGateway gateway, DelayedDeliverySettings settings,
+                             Scheduler timer, Scheduler workers, boolean ownsTimer) {
+        this(gateway, settings, null, timer, workers, ownsTimer);
+    }
+
+    DelayedDeliveryScheduler(AsyncDataFlowGateway gateway, DelayedDeliverySettings settings, DeliveryOutbox outbox,
+                             Scheduler timer, Scheduler workers, boolean ownsTimer) {
+        this(gateway, settings, outbox, timer, workers, ownsTimer, null);
+    }
+
+    DelayedDeliveryScheduler(AsyncDataFlowGateway gateway, DelayedDeliverySettings settings, DeliveryOutbox outbox,
+                             Scheduler timer, Scheduler workers, boolean ownsTimer, DeliveryLanes lanes) {
+        this.gateway = gateway;
+        this.settings = settings;
+        this.outbox = outbox;
+        this.timer = timer;
+        this.workers = workers;
+        this.ownsTimer = ownsTimer;
+        this.lanes = lanes;
+        this.wheel = new HashedTimingWheel<>(settings.getTickDuration(), settings.getTicksPerWheel(),
+                () -> timer.now(TimeUnit.NANOSECONDS));
+        if (outbox != null) {
+            replay();
+        }
+        this.ticker = Flux.interval(settings.getTickDuration(), timer)
+                .subscribe(tick -> expire());
+    }
+
+    public Mono<Void> schedule(Duration delay, String channelRef, String userRef, DeliverMessage message) {
+        return Mono.defer(() -> {
+            if (!accepting) {
+                return Mono.error(reject("Delayed delivery scheduler is shutting down"));
+            }
+            Delivery delivery = Delivery.builder()
+                    .channelRef(channelRef)
+                    .userRef(userRef)
+                    .message(message)
+                    .build();
+            return reserveSlot().doOnSuccess(ignored -> enqueue(pendingOf(delivery, delay), delay));
+        });
+    }
+
+    public int getPendingDeliveries() {
+        return reserved.get();
+    }
+
+    public int getInFlightDeliveries() {
+        return inFlight.get();
+    }
+
+    public long getRejectedDeliveries() {
+        return rejected.get();
+    }
+
+    public long getDroppedDeliveries() {
+        return dropped.get();
+    }
+
+    public long getRetriedDeliveries() {
+        return retried.get();
+    }
+
+    int getOverflowQueueSize() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public Mono<Void> drain() {
+        return Mono.defer(() -> {
+                    accepting = false;
+                    // deliveries kept in the outbox survive the shutdown, only the in-flight ones are waited for
+                    return Flux.interval(Duration.ZERO, DRAIN_POLL_INTERVAL, timer)
+                            .filter(tick -> (outbox == null ? reserved.get() : inFlight.get()) == 0)
+                            .next()
+                            .then();
+                })
+                .timeout(settings.getDrainTimeout(), Mono.fromRunnable(() ->
+                        log.warning("Drain timeout reached with " + reserved.get() + " pending deliveries")));
+    }
+
+    @Override
+    public void close() {
+        drain().block();
+        ticker.dispose();
+        Sinks.Empty<Void> waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiter.tryEmitError(new DeliveryRejectedException("Delayed delivery scheduler is closed"));
+        }
+        // with an outbox the batches not yet sent are cancelled and left unacknowledged for the next start
+        if (outbox != null) {
+            stopped = true;
+            running.dispose();
+        }
+        if (ownsTimer) {
+            timer.dispose();
+        }
+        if (lanes != null) {
+            lanes.close();
+        }
+    }
+
+    private Mono<Void> reserveSlot() {
+        if (tryReserve()) {
+            return Mono.empty();
+        }
+        return switch (settings.getOverflowPolicy()) {
+            case REJECT -> Mono.error(reject("Delayed delivery queue is full"));
+            case DROP_OLDEST -> dropOldest() ? Mono.empty() : Mono.error(reject("Delayed delivery queue is full"));
+            case BLOCK -> awaitSlot();
+        };
+    }
+
+    private boolean tryReserve() {
+        int current;
+        do {
+            current = reserved.get();
+            if (current >= settings.getQueueCapacity()) {
+                return false;
+            }
+        } while (!reserved.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void releaseSlot() {
+        Sinks.Empty<Void> waiter;
+        while ((waiter = waiters.poll()) != null) {
+            // the slot is handed over to a blocked submitter instead of being released
+            if (waiter.tryEmitEmpty().isSuccess()) {
+                return;
+            }
+        }
+        reserved.decrementAndGet();
+    }
+
+    private Mono<Void> awaitSlot() {
+        Sinks.Empty<Void> waiter = Sinks.empty();
+        waiters.offer(waiter);
+        // a slot may have been released between the failed reservation and the registration
+        if (tryReserve() && waiter.tryEmitEmpty().isFailure()) {
+            releaseSlot();
+        }
+        return waiter.asMono()
+                .timeout(settings.getBlockTimeout(), Mono.defer(() ->
+                        waiter.tryEmitError(new DeliveryRejectedException("timeout")).isSuccess()
+                                ? Mono.error(reject("Timeout waiting for delayed delivery capacity"))
+                                : Mono.empty()))
+                .doOnCancel(() -> {
+                    if (waiter.tryEmitError(new DeliveryRejectedException("cancelled")).isFailure()) {
+                        releaseSlot();
+                    }
+                });
+    }
+
+    private boolean dropOldest() {
+        PendingDelivery oldest;
+        while ((oldest = pollOldest()) != null) {
+            // the dropped entry stays in the wheel until its tick and is skipped there
+            if (oldest.claim()) {
+                // the payload leaves the wheel on its next tick instead of waiting for the deadline
+                oldest.timeout.cancel();
+                dropped.incrementAndGet();
+                log.warning("Dropping delayed delivery for channel " + resolve(oldest).getChannelRef()
+                        + " due to queue overflow");
+                if (outbox != null) {
+                    outbox.acknowledge(oldest.position);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PendingDelivery pollOldest() {
+        synchronized (pending) {
+            Iterator<PendingDelivery> oldest = pending.iterator();
+            if (!oldest.hasNext()) {
+                return null;
+            }
+            PendingDelivery delivery = oldest.next();
+            oldest.remove();
+            return delivery;
+        }
+    }
+
+    private void unlink(PendingDelivery delivery) {
+        if (settings.getOverflowPolicy() == OverflowPolicy.DROP_OLDEST) {
+            synchronized (pending) {
+                pending.remove(delivery);
+            }
+        }
+    }
+
+    private PendingDelivery pendingOf(Delivery delivery, Duration delay) {
+        int lane = lanes == null ? 0 : lanes.indexOf(delivery.getChannelRef());
+        if (outbox == null) {
+            return new PendingDelivery(delivery, -1, lane, 0);
+        }
+        try {
+            long dueAtMillis = timer.now(TimeUnit.MILLISECONDS) + delay.toMillis();
+            return new PendingDelivery(null, outbox.append(delivery, dueAtMillis), lane, 0);
+        } catch (RuntimeException e) {
+            releaseSlot();
+            throw e;
+        }
+    }
+
+    private void replay() {
+        long now = timer.now(TimeUnit.MILLISECONDS);
+        // replayed entries were accepted by a previous instance, so they are taken regardless of the capacity
+        outbox.replay((position, dueAtMillis) -> {
+            reserved.incrementAndGet();
+            // the channel is unknown until the entry is read, replayed entries are spread by position
+            int lane = lanes == null ? 0 : (int) Math.floorMod(position, (long) lanes.size());
+            enqueue(new PendingDelivery(null, position, lane, 0), Duration.ofMillis(Math.max(dueAtMillis - now, 0)));
+        });
+        log.info(() -> reserved.get() + " delayed deliveries recovered from the outbox");
+    }
+
+    private Delivery resolve(PendingDelivery delivery) {
+        return delivery.delivery != null ? delivery.delivery : outbox.read(delivery.position);
+    }
+
+    private void enqueue(PendingDelivery delivery, Duration delay) {
+        // linked before it reaches the wheel, so it can not be claimed and unlinked ahead of this
+        if (settings.getOverflowPolicy() == OverflowPolicy.DROP_OLDEST) {
+            // the timeout is set before the entry can be polled for dropping
+            synchronized (pending) {
+                pending.add(delivery);
+                delivery.timeout = wheel.add(delivery, delay);
+            }
+            return;
+        }
+        wheel.add(delivery, delay);
+    }
+
+    private void expire() {
+        List<PendingDelivery> expired = wheel.advance();
+        List<PendingDelivery> batch = new ArrayList<>();
+        for (PendingDelivery delivery : expired) {
+            if (!delivery.claim()) {
+                continue;
+            }
+            unlink(delivery);
+            batch.add(delivery);
+            if (batch.size() == settings.getMaxBatchSize()) {
+                due.offer(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            due.offer(batch);
+        }
+        drainDue();
+    }
+
+    // work-in-progress counter so that batches completing synchronously do not recurse into the drain
+    private void drainDue() {
+        if (dueWip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            List<PendingDelivery> batch;
+            while (!stopped && (batch = due.peek()) != null && fits(batch.size())) {
+                due.poll();
+                start(batch);
+            }
+            missed = dueWip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    // a batch larger than the limit still goes out alone, otherwise it would never be started
+    private boolean fits(int deliveries) {
+        int current = inFlight.get();
+        return current == 0 || current + deliveries <= settings.getMaxConcurrency();
+    }
+
+    private void start(List<PendingDelivery> batch) {
+        inFlight.addAndGet(batch.size());
+        Disposable.Swap subscription = Disposables.swap();
+        running.add(subscription);
+        subscription.update(deliver(batch)
+                .doFinally(signal -> {
+                    running.remove(subscription);
+                    inFlight.addAndGet(-batch.size());
+                    drainDue();
+                })
+                .subscribe());
+    }
+
+    private Mono<Void> deliver(List<PendingDelivery> batch) {
+        if (lanes == null) {
+            return deliver(batch, workers);
+        }
+        Map<Integer, List<PendingDelivery>> byLane = batch.stream()
+                .collect(Collectors.groupingBy(delivery -> delivery.lane, LinkedHashMap::new, Collectors.toList()));
+        return Flux.fromIterable(byLane.entrySet())
+                .flatMap(entry -> deliver(entry.getValue(), lanes.get(entry.getKey())))
+                .then();
+    }
+
+    private Mono<Void> deliver(List<PendingDelivery> batch, Scheduler executor) {
+        boolean[] rescheduled = new boolean[1];
+        List<Delivery> resolved = new ArrayList<>(batch.size());
+        Mono<Void> call;
+        if (outbox != null && lanes != null && lanes.isNonBlocking()) {
+            // the outbox is read on the workers and only the call itself is started on the non-blocking lane
+            call = Mono.fromRunnable(() -> batch.forEach(delivery -> resolved.add(resolve(delivery))))
+                    .subscribeOn(workers)
+                    .then(Mono.defer(() -> gateway.deliverBatch(List.copyOf(resolved))).subscribeOn(executor));
+        } else {
+            // outbox reads happen on the workers, off the wheel thread
+            call = Mono.defer(() -> {
+                batch.forEach(delivery -> resolved.add(resolve(delivery)));
+                return gateway.deliverBatch(List.copyOf(resolved));
+            }).subscribeOn(executor);
+        }
+        return call
+                .doOnSuccess(ignored -> log.info(() -> batch.size() + " async flow messages delivered"))
+                .onErrorResume(error -> {
+                    if (error instanceof GatewayOverloadedException) {
+                        rescheduled[0] = true;
+                        retry(batch, resolved, error);
+                        return Mono.empty();
+                    }
+                    log.warning("Async flow delivery of " + batch.size() + " messages failed: "
+                            + error.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> {
+                    if (!rescheduled[0]) {
+                        batch.forEach(delivery -> complete(delivery, signal));
+                    }
+                });
+    }
+
+    private void retry(List<PendingDelivery> batch, List<Delivery> resolved, Throwable error) {
+        // the gateway reports the deliveries it was handed, the ones it did not name were sent
+        Set<Delivery> shed = null;
+        if (error instanceof DeliveriesShedException partial) {
+            shed = Collections.newSetFromMap(new IdentityHashMap<>());
+            shed.addAll(partial.getShed());
+            for (Throwable failure : error.getSuppressed()) {
+                log.warning("Part of an async flow delivery batch failed: " + failure.getMessage());
+            }
+        }
+        int exhausted = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            PendingDelivery delivery = batch.get(i);
+            if (shed != null && !shed.contains(resolved.get(i))) {
+                complete(delivery, SignalType.ON_COMPLETE);
+                continue;
+            }
+            if (delivery.attempts >= settings.getMaxRetries()) {
+                exhausted++;
+                complete(delivery, SignalType.ON_ERROR);
+                continue;
+            }
+            retried.incrementAndGet();
+            Duration backoff = settings.getRetryBackoff().multipliedBy(1L << Math.min(delivery.attempts, 16));
+            enqueue(delivery.nextAttempt(), backoff);
+        }
+        if (exhausted > 0) {
+            log.warning("Async flow delivery of " + exhausted + " messages failed after "
+                    + settings.getMaxRetries() + " retries: " + error.getMessage());
+        }
+    }
+
+    private void complete(PendingDelivery delivery, SignalType signal) {
+        if (outbox != null && signal != SignalType.CANCEL) {
+            outbox.acknowledge(delivery.position);
+        }
+        releaseSlot();
+    }
+
+    private DeliveryRejectedException reject(String reason) {
+        rejected.incrementAndGet();
+        return new DeliveryRejectedException(reason);
+    }
+
+    private static final class PendingDelivery {
+        private static final AtomicIntegerFieldUpdater<PendingDelivery> CLAIMED =
+                AtomicIntegerFieldUpdater.newUpdater(PendingDelivery.class, "claimed");
+
+        // either the delivery itself or its position in the outbox
+        private final Delivery delivery;
+        private final long position;
+        private final int lane;
+        private final int attempts;
+        private volatile int claimed;
+        // only kept for DROP_OLDEST, the one policy that takes entries out of the wheel early
+        private HashedTimingWheel.Timeout<PendingDelivery> timeout;
+
+        private PendingDelivery(Delivery delivery, long position, int lane, int attempts) {
+            this.delivery = delivery;
+            this.position = position;
+            this.lane = lane;
+            this.attempts = attempts;
+        }
+
+        private PendingDelivery nextAttempt() {
+            return new PendingDelivery(delivery, position, lane, attempts + 1);
+        }
+
+        private boolean claim() {
+            return CLAIMED.compareAndSet(this, 0, 1);
+        }
+    }
+}
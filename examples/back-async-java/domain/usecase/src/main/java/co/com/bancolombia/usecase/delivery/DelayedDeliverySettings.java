@@ -0,0 +1,41 @@
+package co.com.bancolombia.usecase.delivery;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Builder(toBuilder = true)
+@Getter
+public class DelayedDeliverySettings {
+    @Builder.Default
+    private final int maxConcurrency = 256;
+    @Builder.Default
+    private final int queueCapacity = 100_000;
+    @Builder.Default
+    private final OverflowPolicy overflowPolicy = OverflowPolicy.REJECT;
+    @Builder.Default
+    private final Duration blockTimeout = Duration.ofSeconds(1);
+    @Builder.Default
+    private final Duration drainTimeout = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration tickDuration = Duration.ofMillis(10);
+    @Builder.Default
+    private final int ticksPerWheel = 512;
+    @Builder.Default
+    private final int maxBatchSize = 100;
+    // retries of deliveries shed by the gateway, the backoff doubles on every attempt
+    @Builder.Default
+    private final int maxRetries = 5;
+    @Builder.Default
+    private final Duration retryBackoff = Duration.ofMillis(200);
+    @Builder.Default
+    private final ExecutionMode executionMode = ExecutionMode.BOUNDED_ELASTIC;
+    // lanes of the partitioned mode, zero uses one per available processor
+    @Builder.Default
+    private final int partitions = 0;
+
+    public int effectivePartitions() {
+        return partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+    }
+}
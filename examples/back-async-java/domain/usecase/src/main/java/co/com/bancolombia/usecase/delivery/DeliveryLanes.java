@@ -0,0 +1,60 @@
+package co.com.bancolombia.usecase.delivery;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Fixed set of single threaded schedulers a channelRef is hashed to, so every delivery of a channel
+ * is started by the same thread in the order it became due. Lanes created here are owned and disposed
+ * on close; lanes handed in, such as the event loops of the HTTP client, are left running and treated
+ * as non-blocking, so nothing that may block is run on them.
+ */
+public final class DeliveryLanes implements AutoCloseable {
+    private final List<Scheduler> lanes;
+    private final boolean owned;
+
+    private DeliveryLanes(List<Scheduler> lanes, boolean owned) {
+        if (lanes.isEmpty()) {
+            throw new IllegalArgumentException("At least one delivery lane is required");
+        }
+        this.lanes = lanes;
+        this.owned = owned;
+    }
+
+    public static DeliveryLanes dedicated(int count) {
+        return new DeliveryLanes(IntStream.range(0, count)
+                .mapToObj(lane -> Schedulers.newSingle("delivery-lane-" + lane, true))
+                .toList(), true);
+    }
+
+    public static DeliveryLanes on(List<Scheduler> schedulers) {
+        return new DeliveryLanes(List.copyOf(schedulers), false);
+    }
+
+    public boolean isNonBlocking() {
+        return !owned;
+    }
+
+    public int size() {
+        return lanes.size();
+    }
+
+    public int indexOf(String channelRef) {
+        int hash = channelRef == null ? 0 : channelRef.hashCode();
+        return Math.floorMod(hash ^ hash >>> 16, lanes.size());
+    }
+
+    public Scheduler get(int index) {
+        return lanes.get(index);
+    }
+
+    @Override
+    public void close() {
+        if (owned) {
+            lanes.forEach(Scheduler::dispose);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package co.com.bancolombia.usecase.delivery;
+
+public class DeliveryRejectedException extends RuntimeException {
+    public DeliveryRejectedException(String message) {
+        super(message);
+    }
+}
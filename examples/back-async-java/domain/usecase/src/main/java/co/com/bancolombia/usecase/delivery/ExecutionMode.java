@@ -0,0 +1,6 @@
+package co.com.bancolombia.usecase.delivery;
+
+public enum ExecutionMode {
+    BOUNDED_ELASTIC,
+    PARTITIONED
+}
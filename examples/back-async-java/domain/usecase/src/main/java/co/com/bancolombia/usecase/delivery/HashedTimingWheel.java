@@ -0,0 +1,186 @@
+package co.com.bancolombia.usecase.delivery;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.LongSupplier;
+
+/**
+ * Hashed timing wheel in the style of Varghese and Lauck. Items can be added and cancelled from any
+ * thread, but {@link #advance()} must be called by a single thread, it returns every item whose deadline
+ * was reached since the previous call. An item never expires before its deadline and at most one tick after
+ * it; a cancelled item never expires and is unlinked from its bucket on the next advance.
+ */
+public class HashedTimingWheel<T> {
+    private final long tickNanos;
+    private final int mask;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final Bucket<T>[] buckets;
+    private final Queue<Timeout<T>> additions = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<T>> cancellations = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(Duration tickDuration, int ticksPerWheel, LongSupplier nanoClock) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0) {
+            throw new IllegalArgumentException("ticksPerWheel must be positive: " + ticksPerWheel);
+        }
+        int wheelSize = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = Math.max(wheelSize, 1) - 1;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        this.buckets = new Bucket[mask + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket<>();
+        }
+    }
+
+    public Timeout<T> add(T item, Duration delay) {
+        long deadline = nanoClock.getAsLong() - startNanos + Math.max(delay.toNanos(), 0);
+        Timeout<T> timeout = new Timeout<>(this, item, deadline);
+        additions.offer(timeout);
+        size.incrementAndGet();
+        return timeout;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public List<T> advance() {
+        long elapsed = nanoClock.getAsLong() - startNanos;
+        List<T> expired = new ArrayList<>();
+        while (tick * tickNanos <= elapsed) {
+            transferAdditions();
+            removeCancellations();
+            expireBucket(buckets[(int) (tick & mask)], expired);
+            tick++;
+        }
+        size.addAndGet(-expired.size());
+        return expired;
+    }
+
+    private void transferAdditions() {
+        Timeout<T> timeout;
+        while ((timeout = additions.poll()) != null) {
+            if (timeout.state != Timeout.PENDING) {
+                continue;
+            }
+            // ceiling division so that an entry is never expired ahead of its deadline
+            long deadlineTick = (timeout.deadline + tickNanos - 1) / tickNanos;
+            timeout.remainingRounds = (int) (Math.max(deadlineTick - tick, 0) / buckets.length);
+            buckets[(int) (Math.max(deadlineTick, tick) & mask)].link(timeout);
+        }
+    }
+
+    private void removeCancellations() {
+        Timeout<T> timeout;
+        while ((timeout = cancellations.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.unlink(timeout);
+            }
+        }
+    }
+
+    private static <T> void expireBucket(Bucket<T> bucket, List<T> expired) {
+        Timeout<T> timeout = bucket.head;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            if (timeout.remainingRounds <= 0) {
+                bucket.unlink(timeout);
+                if (timeout.expire()) {
+                    expired.add(timeout.item);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    /**
+     * Handle of an added item, cancelling it releases the item on the next advance.
+     */
+    public static final class Timeout<T> {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimingWheel<T> wheel;
+        private final long deadline;
+        private T item;
+        private volatile int state;
+        // only touched by the advancing thread
+        private int remainingRounds;
+        private Bucket<T> bucket;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(HashedTimingWheel<T> wheel, T item, long deadline) {
+            this.wheel = wheel;
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.size.decrementAndGet();
+            wheel.cancellations.offer(this);
+            return true;
+        }
+
+        private boolean expire() {
+            return STATE.compareAndSet(this, PENDING, EXPIRED);
+        }
+    }
+
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        private void link(Timeout<T> timeout) {
+            timeout.bucket = this;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+            }
+            tail = timeout;
+        }
+
+        private void unlink(Timeout<T> timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            if (timeout.state == Timeout.CANCELLED) {
+                timeout.item = null;
+            }
+        }
+    }
+}
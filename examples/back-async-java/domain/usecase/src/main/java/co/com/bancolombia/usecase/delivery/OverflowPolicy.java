@@ -0,0 +1,7 @@
+package co.com.bancolombia.usecase.delivery;
+
+public enum OverflowPolicy {
+    REJECT,
+    DROP_OLDEST,
+    BLOCK
+}
@@ -0,0 +1,67 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Bounds the calls in flight to the delegate with an {@link AdaptiveLimiter} per kind of call, so
+ * credentials and deliveries find their own limits. A batch takes a single permit, like the single
+ * request it becomes. A stream is handed on as a single stream whose deliveries take a permit each: they
+ * are admitted one at a time, so a stream waits for its next permit instead of queueing ahead of other
+ * callers, and a delivery that is not admitted is reported as failed.
+ */
+public class AdaptiveLimitGateway implements AsyncDataFlowGateway {
+    private final AsyncDataFlowGateway delegate;
+    private final AdaptiveLimiter credentialsLimiter;
+    private final AdaptiveLimiter deliveryLimiter;
+
+    public AdaptiveLimitGateway(AsyncDataFlowGateway delegate, AdaptiveLimitSettings settings) {
+        this(delegate, new AdaptiveLimiter("generateCredentials", settings), new AdaptiveLimiter("deliver", settings));
+    }
+
+    AdaptiveLimitGateway(AsyncDataFlowGateway delegate, AdaptiveLimiter credentialsLimiter,
+                         AdaptiveLimiter deliveryLimiter) {
+        this.delegate = delegate;
+        this.credentialsLimiter = credentialsLimiter;
+        this.deliveryLimiter = deliveryLimiter;
+    }
+
+    @Override
+    public Mono<Credentials> generateCredentials(String userIdentifier) {
+        return credentialsLimiter.limit(delegate.generateCredentials(userIdentifier));
+    }
+
+    @Override
+    public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+        return deliveryLimiter.limit(delegate.deliverMessage(channelRef, userRef, message));
+    }
+
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        return deliveryLimiter.limit(delegate.deliverBatch(deliveries));
+    }
+
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return Flux.defer(() -> {
+            DeliveryStream stream = new DeliveryStream();
+            return stream.through(delegate, deliveries
+                    .concatMap(delivery -> deliveryLimiter.admit(stream.send(delivery))
+                            .map(call -> DeliveryStream.resultOf(delivery, call))
+                            .onErrorResume(error -> Mono.just(Mono.just(DeliveryResult.failed(delivery, error)))))
+                    // outstanding deliveries are bounded by the permits
+                    .flatMap(result -> result, Integer.MAX_VALUE));
+        });
+    }
+
+    public List<AdaptiveLimiter> getLimiters() {
+        return List.of(credentialsLimiter, deliveryLimiter);
+    }
+}
@@ -0,0 +1,27 @@
+package co.com.bancolombia.usecase.gateway;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Builder(toBuilder = true)
+@Getter
+public class AdaptiveLimitSettings {
+    @Builder.Default
+    private final int initialLimit = 20;
+    @Builder.Default
+    private final int minLimit = 1;
+    @Builder.Default
+    private final int maxLimit = 1000;
+    @Builder.Default
+    private final double backoffRatio = 0.9;
+    @Builder.Default
+    private final Duration latencyThreshold = Duration.ofMillis(500);
+    @Builder.Default
+    private final LimitPolicy policy = LimitPolicy.REJECT;
+    @Builder.Default
+    private final int maxQueued = 1000;
+    @Builder.Default
+    private final Duration queueTimeout = Duration.ofSeconds(1);
+}
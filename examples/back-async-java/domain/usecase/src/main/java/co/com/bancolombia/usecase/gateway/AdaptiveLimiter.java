@@ -0,0 +1,161 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit tuned by AIMD from the calls it lets through: a call answered within the latency
+ * threshold while the limit is in use grows it by one per limit's worth of calls, a failed or slow one
+ * multiplies it by the backoff ratio. Only calls started after the last decrease can decrease it again,
+ * so a burst of timeouts from the same round counts once. Calls over the limit are rejected or wait in
+ * a bounded queue, depending on the {@link LimitPolicy}.
+ */
+public class AdaptiveLimiter {
+    private final String name;
+    private final AdaptiveLimitSettings settings;
+    private final LongSupplier nanoClock;
+    private final Queue<Sinks.Empty<Void>> waiters = new ArrayDeque<>();
+    private final LongAdder rejected = new LongAdder();
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+
+    public AdaptiveLimiter(String name, AdaptiveLimitSettings settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    AdaptiveLimiter(String name, AdaptiveLimitSettings settings, LongSupplier nanoClock) {
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.limit = settings.getInitialLimit();
+        this.lastDecrease = nanoClock.getAsLong();
+    }
+
+    public <T> Mono<T> limit(Mono<T> call) {
+        return Mono.defer(() -> acquire().then(track(call)));
+    }
+
+    /**
+     * Waits for a permit like {@link #limit(Mono)} but hands the call back instead of running it, for a
+     * caller that admits calls one at a time and must not wait for each of them to end. The returned
+     * call holds the permit and has to be subscribed.
+     */
+    public <T> Mono<Mono<T>> admit(Mono<T> call) {
+        return Mono.defer(() -> acquire().then(Mono.fromSupplier(() -> track(call))));
+    }
+
+    private <T> Mono<T> track(Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = nanoClock.getAsLong();
+            AtomicBoolean done = new AtomicBoolean();
+            return call
+                    .doOnSuccess(ignored -> {
+                        if (done.compareAndSet(false, true)) {
+                            complete(start, false);
+                        }
+                    })
+                    .doOnError(error -> {
+                        if (done.compareAndSet(false, true)) {
+                            complete(start, true);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true)) {
+                            dispatch(1);
+                        }
+                    });
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private Mono<Void> acquire() {
+        Sinks.Empty<Void> waiter;
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Mono.empty();
+            }
+            if (settings.getPolicy() == LimitPolicy.REJECT || waiters.size() >= settings.getMaxQueued()) {
+                rejected.increment();
+                return Mono.error(new GatewayOverloadedException(name + " concurrency limit reached"));
+            }
+            waiter = Sinks.empty();
+            waiters.offer(waiter);
+        }
+        return waiter.asMono()
+                .timeout(settings.getQueueTimeout(), Mono.defer(() -> {
+                    if (waiter.tryEmitError(new GatewayOverloadedException("timeout")).isFailure()) {
+                        return Mono.empty();
+                    }
+                    rejected.increment();
+                    return Mono.error(new GatewayOverloadedException(name + " concurrency limit wait timed out"));
+                }))
+                .doOnCancel(() -> {
+                    // a waiter that was already granted gives its permit back
+                    if (waiter.tryEmitError(new GatewayOverloadedException("cancelled")).isFailure()) {
+                        dispatch(1);
+                    }
+                });
+    }
+
+    private void complete(long start, boolean failed) {
+        long now = nanoClock.getAsLong();
+        synchronized (this) {
+            if (failed || now - start > settings.getLatencyThreshold().toNanos()) {
+                if (start - lastDecrease >= 0) {
+                    limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+                    lastDecrease = now;
+                }
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(settings.getMaxLimit(), limit + 1 / limit);
+            }
+        }
+        dispatch(1);
+    }
+
+    // waiters are completed outside the lock, a waiter that gave up in the meantime returns its permit
+    private void dispatch(int released) {
+        int returned = released;
+        while (returned > 0) {
+            List<Sinks.Empty<Void>> granted = new ArrayList<>();
+            synchronized (this) {
+                inFlight -= returned;
+                while (inFlight < (int) limit && !waiters.isEmpty()) {
+                    granted.add(waiters.poll());
+                    inFlight++;
+                }
+            }
+            returned = 0;
+            for (Sinks.Empty<Void> waiter : granted) {
+                if (waiter.tryEmitEmpty().isFailure()) {
+                    returned++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Reuses the credentials generated for a user during a time to live, so reconnect storms do not
+ * open a new channel per attempt. Concurrent requests for the same user share a single call to the
+ * delegate and the number of cached users is bounded, evicting the oldest entries first. Requests
+ * without a user identifier are never cached, they can not be told apart.
+ */
+public class CachingCredentialsGateway implements AsyncDataFlowGateway {
+    private final AsyncDataFlowGateway delegate;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final Map<String, CachedCredentials> cache = new ConcurrentHashMap<>();
+    private final Queue<CachedCredentials> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public CachingCredentialsGateway(AsyncDataFlowGateway delegate, Duration ttl, int maxEntries) {
+        this(delegate, ttl, maxEntries, System::nanoTime);
+    }
+
+    CachingCredentialsGateway(AsyncDataFlowGateway delegate, Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Credentials> generateCredentials(String userIdentifier) {
+        if (userIdentifier == null || userIdentifier.isBlank()) {
+            return delegate.generateCredentials(userIdentifier);
+        }
+        return Mono.defer(() -> {
+            long now = nanoClock.getAsLong();
+            CachedCredentials current = cache.get(userIdentifier);
+            if (current != null && !current.isExpired(now)) {
+                return current.credentials;
+            }
+            CachedCredentials fresh = new CachedCredentials(userIdentifier, load(userIdentifier), now + ttl.toNanos());
+            CachedCredentials winner = cache.compute(userIdentifier, (key, existing) ->
+                    existing != null && !existing.isExpired(now) ? existing : fresh);
+            if (winner == fresh) {
+                insertionOrder.offer(fresh);
+                queued.incrementAndGet();
+                evictOverflow();
+            }
+            return winner.credentials;
+        });
+    }
+
+    @Override
+    public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+        return delegate.deliverMessage(channelRef, userRef, message);
+    }
+
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        return delegate.deliverBatch(deliveries);
+    }
+
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return delegate.deliverMessages(deliveries);
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private Mono<Credentials> load(String userIdentifier) {
+        // failures and empty results are not cached, the next caller retries against the delegate
+        return delegate.generateCredentials(userIdentifier)
+                .cache(credentials -> ttl, error -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    private void evictOverflow() {
+        // the queue may also hold entries already replaced in the map, it is trimmed with the same pass
+        while (cache.size() > maxEntries || queued.get() > 2 * maxEntries) {
+            CachedCredentials oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            cache.remove(oldest.userIdentifier, oldest);
+        }
+    }
+
+    private static final class CachedCredentials {
+        private final String userIdentifier;
+        private final Mono<Credentials> credentials;
+        private final long expiresAt;
+
+        private CachedCredentials(String userIdentifier, Mono<Credentials> credentials, long expiresAt) {
+            this.userIdentifier = userIdentifier;
+            this.credentials = credentials;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
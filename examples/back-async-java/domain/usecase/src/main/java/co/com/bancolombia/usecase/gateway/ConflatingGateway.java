@@ -0,0 +1,311 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import lombok.extern.java.Log;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Keeps only the latest pending delivery per channel and event name. The first delivery of a key is
+ * held for one flush interval and every delivery arriving meanwhile replaces it, so a key costs at
+ * most one call per interval however fast it is updated; deliveries arriving while that call is in
+ * flight wait for the next flush, which keeps a key's messages in order. Every replaced delivery
+ * completes with the outcome of the one that was finally sent. Batches are conflated the same way in a
+ * window of their own, shared by every pending batch and flushed as a single batch; the deliveries of
+ * a batch that are not conflated are passed through. A stream is handed on as a single stream, its
+ * deliveries are conflated per key like single deliveries but only with those of the same stream.
+ */
+@Log
+public class ConflatingGateway implements AsyncDataFlowGateway {
+    private final AsyncDataFlowGateway delegate;
+    private final ConflationSettings settings;
+    private final Scheduler scheduler;
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final AtomicLong streams = new AtomicLong();
+    private final Object batchLock = new Object();
+    private Map<String, Delivery> batchEntries = new LinkedHashMap<>();
+    private List<BatchWaiter> batchWaiters = new ArrayList<>();
+    private boolean batchScheduled;
+    private boolean batchSending;
+
+    public ConflatingGateway(AsyncDataFlowGateway delegate, ConflationSettings settings) {
+        this(delegate, settings, Schedulers.parallel());
+    }
+
+    ConflatingGateway(AsyncDataFlowGateway delegate, ConflationSettings settings, Scheduler scheduler) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Mono<Credentials> generateCredentials(String userIdentifier) {
+        return delegate.generateCredentials(userIdentifier);
+    }
+
+    @Override
+    public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+        if (!settings.conflates(message.getEventName())) {
+            return delegate.deliverMessage(channelRef, userRef, message);
+        }
+        Delivery delivery = Delivery.builder().channelRef(channelRef).userRef(userRef).message(message).build();
+        return conflate(keyOf(channelRef, message.getEventName()), delivery,
+                latest -> delegate.deliverMessage(latest.getChannelRef(), latest.getUserRef(), latest.getMessage()));
+    }
+
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return Flux.defer(() -> {
+            DeliveryStream stream = new DeliveryStream();
+            // the slots of a stream are its own, a delivery is only replaced by a later one of the same stream
+            String prefix = streams.incrementAndGet() + "\u0000";
+            return stream.through(delegate, deliveries.flatMap(delivery ->
+                    DeliveryStream.resultOf(delivery, streamed(prefix, delivery, stream)), DeliveryStream.MAX_PENDING));
+        });
+    }
+
+    private Mono<Void> streamed(String prefix, Delivery delivery, DeliveryStream stream) {
+        String eventName = delivery.getMessage().getEventName();
+        if (!settings.conflates(eventName)) {
+            return stream.send(delivery);
+        }
+        return conflate(prefix + keyOf(delivery.getChannelRef(), eventName), delivery, stream::send);
+    }
+
+    private Mono<Void> conflate(String key, Delivery delivery, Function<Delivery, Mono<Void>> sender) {
+        return Mono.defer(() -> {
+            received.increment();
+            Sinks.Empty<Void> result = Sinks.empty();
+            boolean[] schedule = new boolean[1];
+            slots.compute(key, (ignored, slot) -> {
+                Slot target = slot != null ? slot : new Slot();
+                target.latest = delivery;
+                target.sender = sender;
+                target.waiters.add(result);
+                if (!target.scheduled && !target.sending) {
+                    target.scheduled = true;
+                    schedule[0] = true;
+                }
+                return target;
+            });
+            if (schedule[0]) {
+                scheduleFlush(key);
+            }
+            return result.asMono();
+        });
+    }
+
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        List<Delivery> conflated = new ArrayList<>();
+        List<Delivery> passThrough = new ArrayList<>();
+        for (Delivery delivery : deliveries) {
+            (settings.conflates(delivery.getMessage().getEventName()) ? conflated : passThrough).add(delivery);
+        }
+        if (conflated.isEmpty()) {
+            return delegate.deliverBatch(deliveries);
+        }
+        if (passThrough.isEmpty()) {
+            return conflateBatch(conflated);
+        }
+        // a failed window names the conflated deliveries only, the passed through ones were sent apart
+        return DeliveriesShedException.whenParts(List.of(passThrough, conflated),
+                part -> part == conflated ? conflateBatch(conflated) : delegate.deliverBatch(part));
+    }
+
+    public long getReceivedDeliveries() {
+        return received.sum();
+    }
+
+    public long getSentDeliveries() {
+        return sent.sum();
+    }
+
+    public int getPendingChannels() {
+        synchronized (batchLock) {
+            return slots.size() + batchEntries.size();
+        }
+    }
+
+    private static String keyOf(Delivery delivery) {
+        return keyOf(delivery.getChannelRef(), delivery.getMessage().getEventName());
+    }
+
+    private static String keyOf(String channelRef, String eventName) {
+        return channelRef + '\u0000' + eventName;
+    }
+
+    // a batch lands in the window at once, so its single waiter completes with the flush that sends all of it
+    private Mono<Void> conflateBatch(List<Delivery> deliveries) {
+        return Mono.defer(() -> {
+            received.add(deliveries.size());
+            BatchWaiter waiter = new BatchWaiter(deliveries, Sinks.empty());
+            if (enterWindow(waiter)) {
+                scheduleBatchFlush();
+            }
+            return waiter.result().asMono();
+        });
+    }
+
+    private boolean enterWindow(BatchWaiter waiter) {
+        boolean schedule = false;
+        synchronized (batchLock) {
+            for (Delivery delivery : waiter.deliveries()) {
+                batchEntries.put(keyOf(delivery), delivery);
+            }
+            batchWaiters.add(waiter);
+            if (!batchScheduled && !batchSending) {
+                batchScheduled = true;
+                schedule = true;
+            }
+        }
+        return schedule;
+    }
+
+    private void scheduleBatchFlush() {
+        scheduler.schedule(this::flushBatch, settings.getFlushInterval().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void flushBatch() {
+        List<Delivery> deliveries;
+        List<BatchWaiter> waiters;
+        synchronized (batchLock) {
+            deliveries = new ArrayList<>(batchEntries.values());
+            waiters = batchWaiters;
+            batchEntries = new LinkedHashMap<>();
+            batchWaiters = new ArrayList<>();
+            batchScheduled = false;
+            batchSending = true;
+        }
+        sent.add(deliveries.size());
+        Mono.defer(() -> delegate.deliverBatch(deliveries))
+                .subscribe(null,
+                        error -> {
+                            log.fine(() -> "Conflated batch of " + deliveries.size() + " failed: "
+                                    + error.getMessage());
+                            batchFailed(deliveries, waiters, error);
+                            batchCompleted();
+                        },
+                        () -> {
+                            waiters.forEach(waiter -> waiter.result().tryEmitEmpty());
+                            batchCompleted();
+                        });
+    }
+
+    // a waiter is shed with the keys of its deliveries that were shed, the rest of them were sent
+    private static void batchFailed(List<Delivery> flushed, List<BatchWaiter> waiters, Throwable error) {
+        if (!(error instanceof GatewayOverloadedException)) {
+            waiters.forEach(waiter -> waiter.result().tryEmitError(error));
+            return;
+        }
+        List<Delivery> shedFlushed = error instanceof DeliveriesShedException partial ? partial.getShed() : flushed;
+        Set<String> shedKeys = new HashSet<>();
+        shedFlushed.forEach(delivery -> shedKeys.add(keyOf(delivery)));
+        for (BatchWaiter waiter : waiters) {
+            List<Delivery> shed = waiter.deliveries().stream()
+                    .filter(delivery -> shedKeys.contains(keyOf(delivery)))
+                    .toList();
+            if (shed.isEmpty()) {
+                waiter.result().tryEmitEmpty();
+            } else {
+                waiter.result().tryEmitError(new DeliveriesShedException(error.getMessage(), shed));
+            }
+        }
+    }
+
+    private void batchCompleted() {
+        boolean schedule;
+        synchronized (batchLock) {
+            batchSending = false;
+            schedule = !batchWaiters.isEmpty();
+            batchScheduled = schedule;
+        }
+        if (schedule) {
+            scheduleBatchFlush();
+        }
+    }
+
+    private void scheduleFlush(String key) {
+        scheduler.schedule(() -> flush(key), settings.getFlushInterval().toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private void flush(String key) {
+        Flush[] taken = new Flush[1];
+        slots.computeIfPresent(key, (ignored, slot) -> {
+            taken[0] = new Flush(slot.latest, slot.sender, slot.waiters);
+            slot.scheduled = false;
+            slot.sending = true;
+            slot.latest = null;
+            slot.sender = null;
+            slot.waiters = new ArrayList<>();
+            return slot;
+        });
+        Flush flush = taken[0];
+        sent.increment();
+        Mono.defer(() -> flush.sender().apply(flush.delivery()))
+                .subscribe(null,
+                        error -> {
+                            log.fine(() -> "Conflated delivery " + key + " failed: " + error.getMessage());
+                            flush.waiters().forEach(waiter -> waiter.tryEmitError(error));
+                            completed(key);
+                        },
+                        () -> {
+                            flush.waiters().forEach(Sinks.Empty::tryEmitEmpty);
+                            completed(key);
+                        });
+    }
+
+    private void completed(String key) {
+        boolean[] schedule = new boolean[1];
+        slots.computeIfPresent(key, (ignored, slot) -> {
+            slot.sending = false;
+            if (slot.waiters.isEmpty()) {
+                return null;
+            }
+            slot.scheduled = true;
+            schedule[0] = true;
+            return slot;
+        });
+        if (schedule[0]) {
+            scheduleFlush(key);
+        }
+    }
+
+    private static final class Slot {
+        private Delivery latest;
+        private Function<Delivery, Mono<Void>> sender;
+        private List<Sinks.Empty<Void>> waiters = new ArrayList<>();
+        private boolean scheduled;
+        private boolean sending;
+    }
+
+    private record BatchWaiter(List<Delivery> deliveries, Sinks.Empty<Void> result) {
+    }
+
+    private record Flush(Delivery delivery, Function<Delivery, Mono<Void>> sender,
+                         List<Sinks.Empty<Void>> waiters) {
+    }
+}
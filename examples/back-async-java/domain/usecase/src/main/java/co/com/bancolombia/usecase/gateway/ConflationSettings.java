@@ -0,0 +1,21 @@
+package co.com.bancolombia.usecase.gateway;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Set;
+
+@Builder(toBuilder = true)
+@Getter
+public class ConflationSettings {
+    @Builder.Default
+    private final Duration flushInterval = Duration.ofMillis(100);
+    // empty conflates every event
+    @Builder.Default
+    private final Set<String> eventNames = Set.of();
+
+    public boolean conflates(String eventName) {
+        return eventName != null && (eventNames.isEmpty() || eventNames.contains(eventName));
+    }
+}
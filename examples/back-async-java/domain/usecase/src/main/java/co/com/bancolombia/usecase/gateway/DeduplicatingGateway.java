@@ -0,0 +1,226 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import lombok.extern.java.Log;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Drops deliveries already sent to the same channel, keyed on the correlation id (or the message id
+ * when there is none). Keys of the last exact window are kept in a bounded map, which also catches
+ * duplicates racing an in-flight delivery; older keys, up to the filter window, are only remembered by
+ * two rotating Bloom filter generations, so a delivery may be wrongly dropped at the configured false
+ * positive rate. A key is only remembered once its delivery succeeded, a failed one can be retried.
+ * Streams are checked delivery by delivery and handed on as a single stream, a dropped duplicate is
+ * reported as delivered.
+ */
+@Log
+public class DeduplicatingGateway implements AsyncDataFlowGateway {
+    private final AsyncDataFlowGateway delegate;
+    private final DeduplicationSettings settings;
+    private final LongSupplier nanoClock;
+    private final long halfFilterWindow;
+    private final Map<String, Long> recent = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder checked = new LongAdder();
+    private final LongAdder exactDuplicates = new LongAdder();
+    private final LongAdder filterDuplicates = new LongAdder();
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long rotateAt;
+
+    public DeduplicatingGateway(AsyncDataFlowGateway delegate, DeduplicationSettings settings) {
+        this(delegate, settings, System::nanoTime);
+    }
+
+    DeduplicatingGateway(AsyncDataFlowGateway delegate, DeduplicationSettings settings, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.halfFilterWindow = settings.getFilterWindow().toNanos() / 2;
+        this.current = newFilter();
+        this.previous = newFilter();
+        this.rotateAt = nanoClock.getAsLong() + halfFilterWindow;
+    }
+
+    @Override
+    public Mono<Credentials> generateCredentials(String userIdentifier) {
+        return delegate.generateCredentials(userIdentifier);
+    }
+
+    @Override
+    public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+        return deduplicate(channelRef, message, () -> delegate.deliverMessage(channelRef, userRef, message));
+    }
+
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        return Mono.defer(() -> {
+            List<Delivery> accepted = new ArrayList<>(deliveries.size());
+            Map<Delivery, String> keys = new IdentityHashMap<>();
+            for (Delivery delivery : deliveries) {
+                String key = keyOf(delivery.getChannelRef(), delivery.getMessage());
+                if (key == null) {
+                    accepted.add(delivery);
+                } else if (tryAcquire(key)) {
+                    accepted.add(delivery);
+                    keys.put(delivery, key);
+                }
+            }
+            if (accepted.isEmpty()) {
+                return Mono.empty();
+            }
+            return delegate.deliverBatch(accepted)
+                    .doOnSuccess(ignored -> keys.values().forEach(this::remember))
+                    .doOnError(error -> settle(keys, error))
+                    .doOnCancel(() -> keys.values().forEach(this::forget));
+        });
+    }
+
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return Flux.defer(() -> {
+            DeliveryStream stream = new DeliveryStream();
+            return stream.through(delegate, deliveries.flatMap(delivery -> DeliveryStream.resultOf(delivery,
+                    deduplicate(delivery.getChannelRef(), delivery.getMessage(), () -> stream.send(delivery))),
+                    DeliveryStream.MAX_PENDING));
+        });
+    }
+
+    public long getCheckedDeliveries() {
+        return checked.sum();
+    }
+
+    public long getExactDuplicates() {
+        return exactDuplicates.sum();
+    }
+
+    public long getFilterDuplicates() {
+        return filterDuplicates.sum();
+    }
+
+    private Mono<Void> deduplicate(String channelRef, DeliverMessage message, Supplier<Mono<Void>> call) {
+        return Mono.defer(() -> {
+            String key = keyOf(channelRef, message);
+            if (key == null) {
+                return call.get();
+            }
+            if (!tryAcquire(key)) {
+                log.fine(() -> "Dropping duplicate delivery " + key);
+                return Mono.empty();
+            }
+            return call.get()
+                    .doOnSuccess(ignored -> remember(key))
+                    .doOnError(error -> forget(key))
+                    .doOnCancel(() -> forget(key));
+        });
+    }
+
+    private static String keyOf(String channelRef, DeliverMessage message) {
+        if (message == null) {
+            return null;
+        }
+        if (message.getCorrelationId() != null) {
+            return channelRef + '\u0000' + message.getCorrelationId();
+        }
+        return message.getMessageId();
+    }
+
+    private boolean tryAcquire(String key) {
+        checked.increment();
+        long now = nanoClock.getAsLong();
+        rotateIfDue(now);
+        long expiresAt = now + settings.getExactWindow().toNanos();
+        Long existing = recent.putIfAbsent(key, expiresAt);
+        if (existing != null && (existing - now > 0 || !recent.replace(key, existing, expiresAt))) {
+            exactDuplicates.increment();
+            return false;
+        }
+        insertionOrder.offer(key);
+        queued.incrementAndGet();
+        evictOverflow();
+        // the key stays in the exact map, so repeated duplicates are counted there from now on
+        if (current.mightContain(key) || previous.mightContain(key)) {
+            filterDuplicates.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // when only part of the batch was shed, the deliveries that were sent are remembered
+    private void settle(Map<Delivery, String> keys, Throwable error) {
+        if (!(error instanceof DeliveriesShedException partial)) {
+            keys.values().forEach(this::forget);
+            return;
+        }
+        Set<Delivery> shed = Collections.newSetFromMap(new IdentityHashMap<>());
+        shed.addAll(partial.getShed());
+        keys.forEach((delivery, key) -> {
+            if (shed.contains(delivery)) {
+                forget(key);
+            } else {
+                remember(key);
+            }
+        });
+    }
+
+    private void remember(String key) {
+        current.put(key);
+    }
+
+    private void forget(String key) {
+        recent.remove(key);
+    }
+
+    private void rotateIfDue(long now) {
+        if (now - rotateAt < 0) {
+            return;
+        }
+        synchronized (this) {
+            if (now - rotateAt < 0) {
+                return;
+            }
+            // after a whole window without traffic the current generation is stale as well
+            previous = now - rotateAt >= halfFilterWindow ? newFilter() : current;
+            current = newFilter();
+            rotateAt = now + halfFilterWindow;
+        }
+    }
+
+    private BloomFilter newFilter() {
+        // every generation receives the keys of half a window
+        return new BloomFilter(settings.getFilterExpectedInsertions() / 2, settings.getFilterFalsePositiveRate());
+    }
+
+    private void evictOverflow() {
+        // the queue may also hold keys already refreshed in the map, it is trimmed with the same pass
+        while (recent.size() > settings.getExactMaxEntries() || queued.get() > 2 * settings.getExactMaxEntries()) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            recent.remove(oldest);
+        }
+    }
+}
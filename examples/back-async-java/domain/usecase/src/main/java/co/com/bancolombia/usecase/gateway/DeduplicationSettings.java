@@ -0,0 +1,21 @@
+package co.com.bancolombia.usecase.gateway;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Builder(toBuilder = true)
+@Getter
+public class DeduplicationSettings {
+    @Builder.Default
+    private final Duration exactWindow = Duration.ofMinutes(1);
+    @Builder.Default
+    private final int exactMaxEntries = 100_000;
+    @Builder.Default
+    private final Duration filterWindow = Duration.ofMinutes(10);
+    @Builder.Default
+    private final long filterExpectedInsertions = 1_000_000;
+    @Builder.Default
+    private final double filterFalsePositiveRate = 0.0001;
+}
@@ -0,0 +1,6 @@
+package co.com.bancolombia.usecase.gateway;
+
+public enum DeliveryLane {
+    INTERACTIVE,
+    BULK
+}
@@ -0,0 +1,83 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands the deliveries a decorator accepts one by one to a single stream of its delegate, so the
+ * decorator keeps its per delivery logic while the adapter still receives one stream to batch. A send
+ * completes when the delegate reports the result of that delivery, and the delegate stream ends once
+ * the results of the decorator do.
+ */
+final class DeliveryStream {
+    // deliveries of a stream handed to the delegate and still waiting for their result
+    static final int MAX_PENDING = 256;
+
+    private final Sinks.Many<Delivery> accepted = Sinks.many().unicast().onBackpressureBuffer();
+    // deliveries have no equality of their own, the instance the delegate reports is the one sent
+    private final Map<Delivery, Sinks.Empty<Void>> pending = new ConcurrentHashMap<>();
+
+    static Mono<DeliveryResult> resultOf(Delivery delivery, Mono<Void> call) {
+        return call.thenReturn(DeliveryResult.delivered(delivery))
+                .onErrorResume(error -> Mono.just(DeliveryResult.failed(delivery, error)));
+    }
+
+    Mono<Void> send(Delivery delivery) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> result = Sinks.empty();
+            pending.put(delivery, result);
+            Sinks.EmitResult emitted;
+            // sends may come from the threads of several completions, they only contend for the emission
+            while ((emitted = accepted.tryEmitNext(delivery)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (emitted.isFailure()) {
+                pending.remove(delivery);
+                return Mono.error(new GatewayOverloadedException("Delivery stream is closed"));
+            }
+            return result.asMono();
+        });
+    }
+
+    Flux<DeliveryResult> through(AsyncDataFlowGateway delegate, Flux<DeliveryResult> results) {
+        Mono<DeliveryResult> sending = delegate.deliverMessages(accepted.asFlux())
+                .doOnNext(this::settle)
+                .onErrorResume(error -> {
+                    fail(error);
+                    return Mono.empty();
+                })
+                .then(Mono.fromRunnable(() -> fail(
+                        new IllegalStateException("Delivery stream ended without a result"))));
+        return Flux.merge(results.doFinally(signal -> accepted.tryEmitComplete()), sending);
+    }
+
+    private void settle(DeliveryResult result) {
+        Sinks.Empty<Void> call = pending.remove(result.getDelivery());
+        if (call == null) {
+            return;
+        }
+        if (result.isDelivered()) {
+            call.tryEmitEmpty();
+        } else {
+            call.tryEmitError(result.getError());
+        }
+    }
+
+    private void fail(Throwable error) {
+        for (Delivery delivery : new ArrayList<>(pending.keySet())) {
+            Sinks.Empty<Void> call = pending.remove(delivery);
+            if (call != null) {
+                call.tryEmitError(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Queues deliveries before they reach the delegate and sends them with a bounded number of deliveries in
+ * flight. Deliveries are split in lanes by event name and the lanes are served by weighted round robin,
+ * so bulk traffic keeps moving without starving interactive replies; inside a lane every channel has its
+ * own queue and channels take turns, so one noisy channel only delays itself. A batch is split by lane
+ * and channel, each part waits in the queue of its channel and is sent as a batch of its own once its
+ * deliveries fit in the limit; the parts are queued together, a batch that does not fit is rejected
+ * whole. The deliveries of a stream are queued one by one and handed on as a single
+ * stream when their turn comes; a stream keeps a bounded number of them queued or in flight, so it can
+ * not fill the shared queue on its own.
+ */
+public class FairDeliveryGateway implements AsyncDataFlowGateway {
+    private final AsyncDataFlowGateway delegate;
+    private final FairDeliverySettings settings;
+    private final DeliveryLane[] order = DeliveryLane.values();
+    private final Map<DeliveryLane, Lane> lanes = new EnumMap<>(DeliveryLane.class);
+    private final Object drainLock = new Object();
+    private int wip;
+    private int queued;
+    private int inFlight;
+    private int current;
+    private int credit;
+
+    public FairDeliveryGateway(AsyncDataFlowGateway delegate, FairDeliverySettings settings) {
+        this.delegate = delegate;
+        this.settings = settings;
+        for (DeliveryLane lane : order) {
+            lanes.put(lane, new Lane());
+        }
+        this.credit = settings.weightOf(order[0]);
+    }
+
+    @Override
+    public Mono<Credentials> generateCredentials(String userIdentifier) {
+        return delegate.generateCredentials(userIdentifier);
+    }
+
+    @Override
+    public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+        return submit(settings.laneOf(message.getEventName()), flowOf(channelRef), 1,
+                () -> delegate.deliverMessage(channelRef, userRef, message));
+    }
+
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        Map<DeliveryLane, Map<String, List<Delivery>>> byFlow = deliveries.stream()
+                .collect(Collectors.groupingBy(delivery -> settings.laneOf(delivery.getMessage().getEventName()),
+                        () -> new EnumMap<>(DeliveryLane.class),
+                        Collectors.groupingBy(delivery -> flowOf(delivery.getChannelRef()), LinkedHashMap::new,
+                                Collectors.toList())));
+        return Mono.defer(() -> {
+            List<List<Delivery>> parts = new ArrayList<>();
+            List<PendingCall> pending = new ArrayList<>();
+            Map<List<Delivery>, PendingCall> calls = new IdentityHashMap<>();
+            byFlow.forEach((lane, flows) -> flows.forEach((flow, part) -> {
+                PendingCall call = new PendingCall(lane, flow, part.size(), () -> delegate.deliverBatch(part));
+                parts.add(part);
+                pending.add(call);
+                calls.put(part, call);
+            }));
+            // the parts are queued together or not at all, so a rejected batch never had a part sent
+            if (!offer(pending)) {
+                return Mono.error(new GatewayOverloadedException("Delivery queue is full"));
+            }
+            drain();
+            return DeliveriesShedException.whenParts(parts, part -> calls.get(part).result());
+        });
+    }
+
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return Flux.defer(() -> {
+            DeliveryStream stream = new DeliveryStream();
+            return stream.through(delegate, deliveries.flatMap(delivery -> DeliveryStream.resultOf(delivery,
+                    submit(settings.laneOf(delivery.getMessage().getEventName()), flowOf(delivery.getChannelRef()), 1,
+                            () -> stream.send(delivery))), DeliveryStream.MAX_PENDING));
+        });
+    }
+
+    public synchronized int getQueuedDeliveries() {
+        return queued;
+    }
+
+    public synchronized int getInFlightDeliveries() {
+        return inFlight;
+    }
+
+    private static String flowOf(String channelRef) {
+        return Objects.toString(channelRef, "");
+    }
+
+    private Mono<Void> submit(DeliveryLane lane, String flow, int size, Supplier<Mono<Void>> call) {
+        return Mono.defer(() -> {
+            PendingCall pending = new PendingCall(lane, flow, size, call);
+            if (!offer(List.of(pending))) {
+                return Mono.error(new GatewayOverloadedException("Delivery queue is full"));
+            }
+            drain();
+            return pending.result();
+        });
+    }
+
+    private synchronized boolean offer(List<PendingCall> calls) {
+        int size = 0;
+        for (PendingCall pending : calls) {
+            size += pending.size;
+        }
+        // a batch larger than the whole queue is still taken when the queue is empty
+        if (queued > 0 && queued + size > settings.getMaxQueued()) {
+            return false;
+        }
+        queued += size;
+        for (PendingCall pending : calls) {
+            lanes.get(pending.lane).offer(pending);
+        }
+        return true;
+    }
+
+    // work-in-progress counter so that calls completing synchronously do not recurse into drain
+    private void drain() {
+        synchronized (drainLock) {
+            if (wip++ != 0) {
+                return;
+            }
+        }
+        int missed = 1;
+        while (true) {
+            PendingCall pending;
+            while ((pending = poll()) != null) {
+                pending.start();
+            }
+            synchronized (drainLock) {
+                wip -= missed;
+                missed = wip;
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // the next call is only peeked, one that does not fit in the limit keeps its turn until enough deliveries end
+    private synchronized PendingCall poll() {
+        while (true) {
+            Lane lane = next();
+            if (lane == null) {
+                return null;
+            }
+            PendingCall pending = lane.peek();
+            if (!pending.cancelled && inFlight > 0 && inFlight + pending.size > settings.getMaxConcurrency()) {
+                return null;
+            }
+            lane.poll();
+            queued -= pending.size;
+            if (!pending.cancelled) {
+                credit -= pending.size;
+                inFlight += pending.size;
+                return pending;
+            }
+        }
+    }
+
+    // weighted round robin: the current lane is served until its credit runs out or it is empty
+    private Lane next() {
+        for (int visited = 0; visited <= order.length; visited++) {
+            Lane lane = lanes.get(order[current]);
+            if (credit > 0 && !lane.isEmpty()) {
+                return lane;
+            }
+            current = (current + 1) % order.length;
+            credit = settings.weightOf(order[current]);
+        }
+        return null;
+    }
+
+    private void release(int size) {
+        synchronized (this) {
+            inFlight -= size;
+        }
+        drain();
+    }
+
+    private static final class Lane {
+        private final Map<String, Deque<PendingCall>> flows = new HashMap<>();
+        private final Deque<String> rotation = new ArrayDeque<>();
+
+        private void offer(PendingCall pending) {
+            Deque<PendingCall> flow = flows.get(pending.flow);
+            if (flow == null) {
+                flow = new ArrayDeque<>();
+                flows.put(pending.flow, flow);
+                rotation.offer(pending.flow);
+            }
+            flow.offer(pending);
+        }
+
+        private boolean isEmpty() {
+            return rotation.isEmpty();
+        }
+
+        private PendingCall peek() {
+            return flows.get(rotation.peek()).peek();
+        }
+
+        private PendingCall poll() {
+            String key = rotation.poll();
+            Deque<PendingCall> flow = flows.get(key);
+            PendingCall pending = flow.poll();
+            if (flow.isEmpty()) {
+                flows.remove(key);
+            } else {
+                rotation.offer(key);
+            }
+            return pending;
+        }
+    }
+
+    private final class PendingCall {
+        private final DeliveryLane lane;
+        private final String flow;
+        private final int size;
+        private final Supplier<Mono<Void>> call;
+        private final Sinks.Empty<Void> sink = Sinks.empty();
+        private volatile Disposable subscription;
+        private volatile boolean cancelled;
+
+        private PendingCall(DeliveryLane lane, String flow, int size, Supplier<Mono<Void>> call) {
+            this.lane = lane;
+            this.flow = flow;
+            this.size = size;
+            this.call = call;
+        }
+
+        private Mono<Void> result() {
+            return sink.asMono().doOnCancel(this::cancel);
+        }
+
+        private void start() {
+            subscription = Mono.defer(call)
+                    .doFinally(signal -> release(size))
+                    .subscribe(null, sink::tryEmitError, sink::tryEmitEmpty);
+            if (cancelled) {
+                subscription.dispose();
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Disposable started = subscription;
+            if (started != null) {
+                started.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package co.com.bancolombia.usecase.gateway;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Set;
+
+@Builder(toBuilder = true)
+@Getter
+public class FairDeliverySettings {
+    @Builder.Default
+    private final int maxConcurrency = 256;
+    @Builder.Default
+    private final int maxQueued = 10_000;
+    @Builder.Default
+    private final int interactiveWeight = 8;
+    @Builder.Default
+    private final int bulkWeight = 1;
+    @Builder.Default
+    private final Set<String> bulkEventNames = Set.of();
+
+    public DeliveryLane laneOf(String eventName) {
+        return eventName != null && bulkEventNames.contains(eventName) ? DeliveryLane.BULK : DeliveryLane.INTERACTIVE;
+    }
+
+    public int weightOf(DeliveryLane lane) {
+        return lane == DeliveryLane.BULK ? bulkWeight : interactiveWeight;
+    }
+}
@@ -0,0 +1,6 @@
+package co.com.bancolombia.usecase.gateway;
+
+public enum LimitPolicy {
+    REJECT,
+    QUEUE
+}
@@ -0,0 +1,294 @@
+package co.com.bancolombia.usecase.delivery;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import co.com.bancolombia.model.async.gateways.DeliveryOutbox;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DelayedDeliverySchedulerTest {
+
+    private AsyncDataFlowGateway gateway;
+    private VirtualTimeScheduler timer;
+
+    @BeforeEach
+    void setUp() {
+        gateway = mock(AsyncDataFlowGateway.class);
+        when(gateway.deliverBatch(anyList())).thenReturn(Mono.empty());
+        timer = VirtualTimeScheduler.create();
+    }
+
+    @Test
+    void shouldDeliverOnlyWhenDelayElapses() {
+        DelayedDeliveryScheduler scheduler = scheduler(OverflowPolicy.REJECT, 10);
+
+        StepVerifier.create(scheduler.schedule(Duration.ofSeconds(5), "ch1", "user", message("m1")))
+                .verifyComplete();
+
+        timer.advanceTimeBy(Duration.ofSeconds(4));
+        verify(gateway, never()).deliverBatch(anyList());
+
+        timer.advanceTimeBy(Duration.ofSeconds(1));
+        assertThat(deliveredChannels()).containsExactly("ch1");
+        assertThat(scheduler.getPendingDeliveries()).isZero();
+    }
+
+    @Test
+    void shouldHandExpiredTickInOneBatch() {
+        DelayedDeliveryScheduler scheduler = scheduler(OverflowPolicy.REJECT, 10);
+
+        StepVerifier.create(Mono.when(
+                        scheduler.schedule(Duration.ofMillis(100), "ch1", "user", message("m1")),
+                        scheduler.schedule(Duration.ofMillis(100), "ch2", "user", message("m2"))))
+                .verifyComplete();
+
+        timer.advanceTimeBy(Duration.ofMillis(100));
+        assertThat(deliveredChannels()).containsExactlyInAnyOrder("ch1", "ch2");
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        DelayedDeliveryScheduler scheduler = scheduler(OverflowPolicy.REJECT, 1);
+
+        StepVerifier.create(scheduler.schedule(Duration.ofSeconds(5), "ch1", "user", message("m1")))
+                .verifyComplete();
+        StepVerifier.create(scheduler.schedule(Duration.ofSeconds(5), "ch2", "user", message("m2")))
+                .verifyError(DeliveryRejectedException.class);
+
+        assertThat(scheduler.getRejectedDeliveries()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropOldestWhenQueueIsFull() {
+        DelayedDeliveryScheduler scheduler = scheduler(OverflowPolicy.DROP_OLDEST, 1);
+
+        StepVerifier.create(scheduler.schedule(Duration.ofSeconds(5), "ch1", "user", message("m1")))
+                .verifyComplete();
+        StepVerifier.create(scheduler.schedule(Duration.ofSeconds(5), "ch2", "user", message("m2")))
+                .verifyComplete();
+
+        timer.advanceTimeBy(Duration.ofSeconds(5));
+        assertThat(deliveredChannels()).containsExactly("ch2");
+        assertThat(scheduler.getDroppedDeliveries()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldStartBatchesOnlyWhileDeliveriesInFlightFitTheLimit() {
+        List<Sinks.Empty<Void>> calls = new CopyOnWriteArrayList<>();
+        when(gateway.deliverBatch(anyList())).thenAnswer(invocation -> {
+            Sinks.Empty<Void> call = Sinks.empty();
+            calls.add(call);
+            return call.asMono();
+        });
+        DelayedDeliveryScheduler scheduler = new DelayedDeliveryScheduler(gateway, DelayedDeliverySettings.builder()
+                .maxConcurrency(2)
+                .maxBatchSize(1)
+                .build(), timer, Schedulers.immediate(), false);
+
+        StepVerifier.create(Mono.when(
+                        scheduler.schedule(Duration.ofMillis(100), "ch1", "user", message("m1")),
+                        scheduler.schedule(Duration.ofMillis(100), "ch2", "user", message("m2")),
+                        scheduler.schedule(Duration.ofMillis(100), "ch3", "user", message("m3"))))
+                .verifyComplete();
+        timer.advanceTimeBy(Duration.ofMillis(100));
+
+        assertThat(calls).hasSize(2);
+        assertThat(scheduler.getInFlightDeliveries()).isEqualTo(2);
+
+        calls.getFirst().tryEmitEmpty();
+        assertThat(calls).hasSize(3);
+        assertThat(scheduler.getInFlightDeliveries()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldScheduleShedBatchesAgainWithBackoff() {
+        when(gateway.deliverBatch(anyList()))
+                .thenReturn(Mono.error(new GatewayOverloadedException("deliverBatch shed")))
+                .thenReturn(Mono.empty());
+        DelayedDeliveryScheduler scheduler = scheduler(OverflowPolicy.REJECT, 10);
+
+        StepVerifier.create(scheduler.schedule(Duration.ofMillis(100), "ch1", "user", message("m1")))
+                .verifyComplete();
+        timer.advanceTimeBy(Duration.ofMillis(100));
+        verify(gateway, times(1)).deliverBatch(anyList());
+        assertThat(scheduler.getPendingDeliveries()).isEqualTo(1);
+        assertThat(scheduler.getRetriedDeliveries()).isEqualTo(1);
+
+        timer.advanceTimeBy(Duration.ofMillis(200));
+        verify(gateway, times(2)).deliverBatch(anyList());
+        assertThat(scheduler.getPendingDeliveries()).isZero();
+    }
+
+    @Test
+    void shouldScheduleOnlyTheShedPartOfABatchAgain() {
+        List<String> sent = new CopyOnWriteArrayList<>();
+        boolean[] overloaded = {true};
+        when(gateway.deliverBatch(anyList())).thenAnswer(invocation -> {
+            List<Delivery> batch = invocation.getArgument(0);
+            int half = overloaded[0] ? batch.size() / 2 : batch.size();
+            batch.subList(0, half).forEach(delivery -> sent.add(delivery.getMessage().getMessageId()));
+            if (half == batch.size()) {
+                return Mono.empty();
+            }
+            overloaded[0] = false;
+            return Mono.error(new DeliveriesShedException("deliverBatch shed", batch.subList(half, batch.size())));
+        });
+        DelayedDeliveryScheduler scheduler = scheduler(OverflowPolicy.REJECT, 10);
+
+        StepVerifier.create(Mono.when(
+                        scheduler.schedule(Duration.ofMillis(100), "ch1", "user", message("m1")),
+                        scheduler.schedule(Duration.ofMillis(100), "ch2", "user", message("m2")),
+                        scheduler.schedule(Duration.ofMillis(100), "ch3", "user", message("m3")),
+                        scheduler.schedule(Duration.ofMillis(100), "ch4", "user", message("m4"))))
+                .verifyComplete();
+        timer.advanceTimeBy(Duration.ofMillis(100));
+        assertThat(sent).hasSize(2);
+        assertThat(scheduler.getPendingDeliveries()).isEqualTo(2);
+        assertThat(scheduler.getRetriedDeliveries()).isEqualTo(2);
+
+        timer.advanceTimeBy(Duration.ofMillis(200));
+        verify(gateway, times(2)).deliverBatch(anyList());
+        assertThat(sent).hasSize(4).doesNotHaveDuplicates().contains("m1", "m2", "m3", "m4");
+        assertThat(scheduler.getPendingDeliveries()).isZero();
+    }
+
+    @Test
+    void shouldUnlinkDeliveredEntriesBehindALongDelayFromTheOverflowQueue() {
+        DelayedDeliveryScheduler scheduler = scheduler(OverflowPolicy.DROP_OLDEST, 2);
+
+        StepVerifier.create(scheduler.schedule(Duration.ofHours(1), "ch0", "user", message("m0")))
+                .verifyComplete();
+        for (int i = 1; i <= 100; i++) {
+            StepVerifier.create(scheduler.schedule(Duration.ofMillis(10), "ch" + i, "user", message("m" + i)))
+                    .verifyComplete();
+            timer.advanceTimeBy(Duration.ofMillis(10));
+        }
+
+        verify(gateway, times(100)).deliverBatch(anyList());
+        assertThat(scheduler.getOverflowQueueSize()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDeliverAndAcknowledgeEntriesReplayedFromOutbox() {
+        DeliveryOutbox outbox = mock(DeliveryOutbox.class);
+        doAnswer(invocation -> {
+            invocation.<DeliveryOutbox.PendingEntryConsumer>getArgument(0).accept(7L, 3_000L);
+            return null;
+        }).when(outbox).replay(any());
+        when(outbox.read(7L)).thenReturn(Delivery.builder().channelRef("ch1").message(message("m1")).build());
+
+        DelayedDeliveryScheduler scheduler = new DelayedDeliveryScheduler(gateway,
+                DelayedDeliverySettings.builder().build(), outbox, timer, Schedulers.immediate(), false);
+        assertThat(scheduler.getPendingDeliveries()).isEqualTo(1);
+
+        timer.advanceTimeBy(Duration.ofSeconds(3));
+        assertThat(deliveredChannels()).containsExactly("ch1");
+        verify(outbox).acknowledge(7L);
+        assertThat(scheduler.getPendingDeliveries()).isZero();
+    }
+
+    @Test
+    void shouldStartEachChannelOnItsOwnLane() {
+        DeliveryLanes lanes = DeliveryLanes.dedicated(2);
+        String first = "ch1";
+        String second = IntStream.range(2, 100).mapToObj(i -> "ch" + i)
+                .filter(channel -> lanes.indexOf(channel) != lanes.indexOf(first))
+                .findFirst().orElseThrow();
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        when(gateway.deliverBatch(anyList())).thenAnswer(invocation -> {
+            invocation.<List<Delivery>>getArgument(0)
+                    .forEach(delivery -> threads.put(delivery.getChannelRef(), Thread.currentThread().getName()));
+            return Mono.empty();
+        });
+        DelayedDeliveryScheduler scheduler = new DelayedDeliveryScheduler(gateway,
+                DelayedDeliverySettings.builder().build(), null, timer, Schedulers.immediate(), false, lanes);
+
+        StepVerifier.create(Mono.when(
+                        scheduler.schedule(Duration.ofMillis(100), first, "user", message("m1")),
+                        scheduler.schedule(Duration.ofMillis(100), second, "user", message("m2"))))
+                .verifyComplete();
+        timer.advanceTimeBy(Duration.ofMillis(100));
+
+        verify(gateway, timeout(1000).times(2)).deliverBatch(anyList());
+        // single schedulers name their thread after the scheduler plus a counter
+        assertThat(threads.get(first)).startsWith("delivery-lane-" + lanes.indexOf(first) + "-");
+        assertThat(threads.get(second)).startsWith("delivery-lane-" + lanes.indexOf(second) + "-");
+        lanes.close();
+    }
+
+    @Test
+    void shouldReadTheOutboxOffNonBlockingLanes() {
+        Scheduler loop = Schedulers.newSingle("event-loop");
+        Scheduler workers = Schedulers.newSingle("outbox-reader");
+        DeliveryOutbox outbox = mock(DeliveryOutbox.class);
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        when(outbox.read(anyLong())).thenAnswer(invocation -> {
+            threads.put("read", Thread.currentThread().getName());
+            return Delivery.builder().channelRef("ch1").message(message("m1")).build();
+        });
+        when(gateway.deliverBatch(anyList())).thenAnswer(invocation -> {
+            threads.put("call", Thread.currentThread().getName());
+            return Mono.empty();
+        });
+        DelayedDeliveryScheduler scheduler = new DelayedDeliveryScheduler(gateway,
+                DelayedDeliverySettings.builder().build(), outbox, timer, workers, false,
+                DeliveryLanes.on(List.of(loop)));
+
+        StepVerifier.create(scheduler.schedule(Duration.ofMillis(100), "ch1", "user", message("m1")))
+                .verifyComplete();
+        timer.advanceTimeBy(Duration.ofMillis(100));
+
+        verify(gateway, timeout(1000)).deliverBatch(anyList());
+        assertThat(threads.get("read")).startsWith("outbox-reader-");
+        assertThat(threads.get("call")).startsWith("event-loop-");
+        loop.dispose();
+        workers.dispose();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> deliveredChannels() {
+        ArgumentCaptor<List<Delivery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(gateway).deliverBatch(captor.capture());
+        return captor.getValue().stream().map(Delivery::getChannelRef).toList();
+    }
+
+    private DelayedDeliveryScheduler scheduler(OverflowPolicy policy, int capacity) {
+        return new DelayedDeliveryScheduler(gateway, DelayedDeliverySettings.builder()
+                .queueCapacity(capacity)
+                .overflowPolicy(policy)
+                .build(), timer, Schedulers.immediate(), false);
+    }
+
+    private static DeliverMessage message(String messageId) {
+        return DeliverMessage.builder().messageId(messageId).eventName("businessEvent").build();
+    }
+}
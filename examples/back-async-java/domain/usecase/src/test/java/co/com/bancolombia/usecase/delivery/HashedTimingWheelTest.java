@@ -0,0 +1,48 @@
+package co.com.bancolombia.usecase.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(Duration.ofMillis(10), 8, clock::get);
+
+    @Test
+    void shouldExpireItemsOnTheirTickAndNeverBefore() {
+        wheel.add("short", Duration.ofMillis(20));
+        wheel.add("long", Duration.ofMillis(200));
+
+        advanceTo(Duration.ofMillis(10));
+        assertThat(wheel.advance()).isEmpty();
+
+        advanceTo(Duration.ofMillis(20));
+        assertThat(wheel.advance()).containsExactly("short");
+
+        advanceTo(Duration.ofMillis(200));
+        assertThat(wheel.advance()).containsExactly("long");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void shouldNeverExpireACancelledItem() {
+        HashedTimingWheel.Timeout<String> cancelled = wheel.add("cancelled", Duration.ofMillis(200));
+        wheel.add("kept", Duration.ofMillis(200));
+        wheel.advance();
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+        assertThat(wheel.size()).isEqualTo(1);
+
+        advanceTo(Duration.ofMillis(200));
+        assertThat(wheel.advance()).containsExactly("kept");
+    }
+
+    private void advanceTo(Duration elapsed) {
+        clock.set(elapsed.toNanos());
+    }
+}
@@ -0,0 +1,97 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldRejectCallsOverTheLimit() {
+        AdaptiveLimiter limiter = limiter(AdaptiveLimitSettings.builder().initialLimit(1).build());
+        Sinks.Empty<Void> held = Sinks.empty();
+
+        limiter.limit(held.asMono()).subscribe();
+
+        StepVerifier.create(limiter.limit(Mono.empty()))
+                .verifyError(GatewayOverloadedException.class);
+        assertThat(limiter.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldQueueCallsUntilAPermitIsReleased() {
+        AdaptiveLimiter limiter = limiter(AdaptiveLimitSettings.builder()
+                .initialLimit(1)
+                .policy(LimitPolicy.QUEUE)
+                .build());
+        Sinks.Empty<Void> held = Sinks.empty();
+        AtomicInteger calls = new AtomicInteger();
+
+        limiter.limit(held.asMono()).subscribe();
+        limiter.limit(Mono.fromRunnable(calls::incrementAndGet)).subscribe();
+        assertThat(calls).hasValue(0);
+
+        held.tryEmitEmpty();
+        assertThat(calls).hasValue(1);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void shouldAdmitCallsWithoutWaitingForThemToEnd() {
+        AdaptiveLimiter limiter = limiter(AdaptiveLimitSettings.builder()
+                .initialLimit(1)
+                .policy(LimitPolicy.QUEUE)
+                .build());
+        Sinks.Empty<Void> held = Sinks.empty();
+        AtomicInteger admitted = new AtomicInteger();
+
+        limiter.admit(held.asMono()).subscribe(call -> {
+            admitted.incrementAndGet();
+            call.subscribe();
+        });
+        limiter.admit(Mono.<Void>empty()).subscribe(call -> admitted.incrementAndGet());
+        assertThat(admitted).hasValue(1);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+
+        held.tryEmitEmpty();
+        assertThat(admitted).hasValue(2);
+    }
+
+    @Test
+    void shouldDecreaseOnceForSlowCallsOfTheSameRound() {
+        AdaptiveLimiter limiter = limiter(AdaptiveLimitSettings.builder().initialLimit(10).build());
+        Sinks.Empty<Void> first = Sinks.empty();
+        Sinks.Empty<Void> second = Sinks.empty();
+        limiter.limit(first.asMono()).subscribe();
+        limiter.limit(second.asMono()).subscribe();
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        first.tryEmitEmpty();
+        second.tryEmitEmpty();
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void shouldIncreaseOnFastCallsWhileTheLimitIsUsed() {
+        AdaptiveLimiter limiter = limiter(AdaptiveLimitSettings.builder().initialLimit(1).build());
+
+        StepVerifier.create(limiter.limit(Mono.empty())).verifyComplete();
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    private AdaptiveLimiter limiter(AdaptiveLimitSettings settings) {
+        return new AdaptiveLimiter("deliver", settings, clock::get);
+    }
+}
@@ -0,0 +1,107 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingCredentialsGatewayTest {
+
+    private final AsyncDataFlowGateway delegate = mock(AsyncDataFlowGateway.class);
+    private final AtomicLong clock = new AtomicLong();
+    private final CachingCredentialsGateway gateway =
+            new CachingCredentialsGateway(delegate, Duration.ofSeconds(30), 2, clock::get);
+
+    @Test
+    void shouldReuseCredentialsUntilTtlExpires() {
+        when(delegate.generateCredentials(any())).thenAnswer(invocation -> Mono.just(credentials("ch1")));
+
+        generate("u1");
+        clock.addAndGet(Duration.ofSeconds(29).toNanos());
+        generate("u1");
+        verify(delegate, times(1)).generateCredentials("u1");
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        generate("u1");
+        verify(delegate, times(2)).generateCredentials("u1");
+    }
+
+    @Test
+    void shouldShareOneCallBetweenConcurrentMisses() {
+        Sinks.One<Credentials> pending = Sinks.one();
+        when(delegate.generateCredentials(any())).thenReturn(pending.asMono());
+
+        Mono<Credentials> first = gateway.generateCredentials("u1");
+        Mono<Credentials> second = gateway.generateCredentials("u1");
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> pending.tryEmitValue(credentials("ch1")))
+                .assertNext(both -> assertThat(both.getT1()).isSameAs(both.getT2()))
+                .verifyComplete();
+
+        verify(delegate, times(1)).generateCredentials("u1");
+    }
+
+    @Test
+    void shouldNotCacheFailures() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.generateCredentials(any())).thenReturn(Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("down"))
+                : Mono.just(credentials("ch1"))));
+
+        StepVerifier.create(gateway.generateCredentials("u1")).verifyError(IllegalStateException.class);
+        generate("u1");
+        generate("u1");
+
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void shouldEvictOldestUserAtCapacity() {
+        when(delegate.generateCredentials(any())).thenAnswer(invocation -> Mono.just(credentials("ch1")));
+
+        generate("u1");
+        generate("u2");
+        generate("u3");
+        assertThat(gateway.size()).isEqualTo(2);
+
+        generate("u3");
+        generate("u1");
+        verify(delegate, times(1)).generateCredentials("u3");
+        verify(delegate, times(2)).generateCredentials("u1");
+    }
+
+    @Test
+    void shouldNotCacheRequestsWithoutUserIdentifier() {
+        when(delegate.generateCredentials(any())).thenAnswer(invocation -> Mono.just(credentials("ch1")));
+
+        generate(null);
+        generate(null);
+
+        verify(delegate, times(2)).generateCredentials(eq(null));
+        assertThat(gateway.size()).isZero();
+    }
+
+    private void generate(String userIdentifier) {
+        StepVerifier.create(gateway.generateCredentials(userIdentifier))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private static Credentials credentials(String channelRef) {
+        return Credentials.builder().channelRef(channelRef).channelSecret("secret").build();
+    }
+}
@@ -0,0 +1,205 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.Message;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConflatingGatewayTest {
+
+    private final AsyncDataFlowGateway delegate = mock(AsyncDataFlowGateway.class);
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final ConflatingGateway gateway = new ConflatingGateway(delegate, ConflationSettings.builder()
+            .flushInterval(Duration.ofMillis(100))
+            .eventNames(Set.of("status"))
+            .build(), scheduler);
+
+    @Test
+    void shouldSendOnlyLatestUpdatePerChannelAndEvent() {
+        when(delegate.deliverMessage(any(), any(), any())).thenReturn(Mono.empty());
+
+        Mono<Void> first = gateway.deliverMessage("ch1", "u1", message("status", "1"));
+        Mono<Void> second = gateway.deliverMessage("ch1", "u1", message("status", "2"));
+        Mono<Void> other = gateway.deliverMessage("ch2", "u2", message("status", "1"));
+        StepVerifier.create(Mono.when(first, second, other))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(100)))
+                .verifyComplete();
+
+        verify(delegate, times(1)).deliverMessage(eq("ch1"), any(), argThat(sent -> "2".equals(sent.getMessageId())));
+        verify(delegate, times(1)).deliverMessage(eq("ch2"), any(), any());
+        assertThat(gateway.getReceivedDeliveries()).isEqualTo(3);
+        assertThat(gateway.getSentDeliveries()).isEqualTo(2);
+        assertThat(gateway.getPendingChannels()).isZero();
+    }
+
+    @Test
+    void shouldHoldUpdatesUntilInFlightCallCompletes() {
+        Sinks.Empty<Void> inFlight = Sinks.empty();
+        when(delegate.deliverMessage(any(), any(), any())).thenReturn(inFlight.asMono()).thenReturn(Mono.empty());
+
+        gateway.deliverMessage("ch1", "u1", message("status", "1")).subscribe();
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        gateway.deliverMessage("ch1", "u1", message("status", "2")).subscribe();
+        gateway.deliverMessage("ch1", "u1", message("status", "3")).subscribe();
+        scheduler.advanceTimeBy(Duration.ofMillis(500));
+
+        verify(delegate, times(1)).deliverMessage(any(), any(), any());
+        inFlight.tryEmitEmpty();
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+
+        verify(delegate, never()).deliverMessage(any(), any(), argThat(sent -> "2".equals(sent.getMessageId())));
+        verify(delegate, times(1)).deliverMessage(any(), any(), argThat(sent -> "3".equals(sent.getMessageId())));
+    }
+
+    @Test
+    void shouldPassThroughEventsNotConflated() {
+        when(delegate.deliverMessage(any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(gateway.deliverMessage("ch1", "u1", message("payment", "1"))).verifyComplete();
+
+        verify(delegate, times(1)).deliverMessage(any(), any(), any());
+        assertThat(gateway.getReceivedDeliveries()).isZero();
+    }
+
+    @Test
+    void shouldConflateBatchesWithinAndAcrossPendingBatches() {
+        List<List<String>> batches = recordBatches(Mono.empty());
+
+        Mono<Void> first = gateway.deliverBatch(List.of(delivery("ch1", "status", "1"), delivery("ch1", "status", "2"),
+                delivery("ch2", "status", "1")));
+        Mono<Void> second = gateway.deliverBatch(List.of(delivery("ch1", "status", "3")));
+        StepVerifier.create(Mono.when(first, second))
+                .then(() -> assertThat(batches).isEmpty())
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(100)))
+                .verifyComplete();
+
+        assertThat(batches).containsExactly(List.of("ch1:3", "ch2:1"));
+        assertThat(gateway.getReceivedDeliveries()).isEqualTo(4);
+        assertThat(gateway.getSentDeliveries()).isEqualTo(2);
+        assertThat(gateway.getPendingChannels()).isZero();
+    }
+
+    @Test
+    void shouldPassThroughBatchDeliveriesNotConflated() {
+        List<List<String>> batches = recordBatches(Mono.empty());
+
+        StepVerifier.create(gateway.deliverBatch(List.of(delivery("ch1", "payment", "p1"),
+                        delivery("ch1", "status", "s1"))))
+                .then(() -> assertThat(batches).containsExactly(List.of("ch1:p1")))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(100)))
+                .verifyComplete();
+
+        assertThat(batches).containsExactly(List.of("ch1:p1"), List.of("ch1:s1"));
+    }
+
+    @Test
+    void shouldNameOnlyConflatedDeliveriesWhenTheWindowIsShed() {
+        when(delegate.deliverBatch(any())).thenAnswer(invocation -> invocation.<List<Delivery>>getArgument(0)
+                .stream().anyMatch(delivery -> "status".equals(delivery.getMessage().getEventName()))
+                ? Mono.error(new GatewayOverloadedException("deliverBatch shed"))
+                : Mono.empty());
+        Delivery passed = delivery("ch1", "payment", "p1");
+        Delivery conflated = delivery("ch1", "status", "s1");
+
+        StepVerifier.create(gateway.deliverBatch(List.of(passed, conflated)))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(100)))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOfSatisfying(DeliveriesShedException.class,
+                                shed -> assertThat(shed.getShed()).containsExactly(conflated)))
+                .verify();
+        verify(delegate, times(2)).deliverBatch(any());
+    }
+
+    @Test
+    void shouldHoldBatchUpdatesUntilInFlightBatchCompletes() {
+        Sinks.Empty<Void> inFlight = Sinks.empty();
+        List<List<String>> batches = recordBatches(inFlight.asMono());
+
+        gateway.deliverBatch(List.of(delivery("ch1", "status", "1"))).subscribe();
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        gateway.deliverBatch(List.of(delivery("ch1", "status", "2"))).subscribe();
+        gateway.deliverBatch(List.of(delivery("ch1", "status", "3"))).subscribe();
+        scheduler.advanceTimeBy(Duration.ofMillis(500));
+
+        assertThat(batches).containsExactly(List.of("ch1:1"));
+        inFlight.tryEmitEmpty();
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+
+        assertThat(batches).containsExactly(List.of("ch1:1"), List.of("ch1:3"));
+    }
+
+    @Test
+    void shouldConflateStreamThroughTheDelegateStream() {
+        List<String> streamed = new CopyOnWriteArrayList<>();
+        when(delegate.deliverMessages(any())).thenAnswer(invocation -> invocation.<Flux<Delivery>>getArgument(0)
+                .map(delivery -> {
+                    streamed.add(delivery.getChannelRef() + ":" + delivery.getMessage().getMessageId());
+                    return DeliveryResult.delivered(delivery);
+                }));
+
+        StepVerifier.create(gateway.deliverMessages(Flux.just(delivery("ch1", "status", "1"),
+                        delivery("ch1", "payment", "p1"), delivery("ch1", "status", "2"))))
+                .expectNextMatches(result -> "p1".equals(result.getDelivery().getMessage().getMessageId()))
+                .then(() -> scheduler.advanceTimeBy(Duration.ofMillis(100)))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertThat(streamed).containsExactly("ch1:p1", "ch1:2");
+        assertThat(gateway.getSentDeliveries()).isEqualTo(1);
+        assertThat(gateway.getPendingChannels()).isZero();
+        verify(delegate, never()).deliverMessage(any(), any(), any());
+    }
+
+    private List<List<String>> recordBatches(Mono<Void> firstOutcome) {
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        when(delegate.deliverBatch(any())).thenAnswer(invocation -> {
+            List<Delivery> deliveries = invocation.getArgument(0);
+            batches.add(deliveries.stream()
+                    .map(delivery -> delivery.getChannelRef() + ":" + delivery.getMessage().getMessageId())
+                    .toList());
+            return batches.size() == 1 ? firstOutcome : Mono.empty();
+        });
+        return batches;
+    }
+
+    private static Delivery delivery(String channelRef, String eventName, String messageId) {
+        return Delivery.builder()
+                .channelRef(channelRef)
+                .userRef("u1")
+                .message(message(eventName, messageId))
+                .build();
+    }
+
+    private static DeliverMessage message(String eventName, String messageId) {
+        return DeliverMessage.builder()
+                .channelRef("ch")
+                .messageId(messageId)
+                .eventName(eventName)
+                .messageData(Message.builder().code("100").build())
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeduplicatingGatewayTest {
+
+    private final AsyncDataFlowGateway delegate = mock(AsyncDataFlowGateway.class);
+    private final AtomicLong clock = new AtomicLong();
+    private final DeduplicatingGateway gateway = new DeduplicatingGateway(delegate, DeduplicationSettings.builder()
+            .exactWindow(Duration.ofSeconds(1))
+            .filterWindow(Duration.ofSeconds(10))
+            .filterExpectedInsertions(1000)
+            .build(), clock::get);
+
+    @Test
+    void shouldDropRepeatedCorrelationForSameChannel() {
+        when(delegate.deliverMessage(any(), any(), any())).thenReturn(Mono.empty());
+
+        deliver("ch1", "c1");
+        deliver("ch1", "c1");
+        deliver("ch2", "c1");
+
+        verify(delegate, times(1)).deliverMessage(eq("ch1"), any(), any());
+        verify(delegate, times(1)).deliverMessage(eq("ch2"), any(), any());
+        assertThat(gateway.getCheckedDeliveries()).isEqualTo(3);
+        assertThat(gateway.getExactDuplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLetFailedDeliveryBeRetried() {
+        when(delegate.deliverMessage(any(), any(), any()))
+                .thenReturn(Mono.error(new IllegalStateException("down")))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(gateway.deliverMessage("ch1", "user", message("c1"))).verifyError();
+        deliver("ch1", "c1");
+
+        verify(delegate, times(2)).deliverMessage(any(), any(), any());
+    }
+
+    @Test
+    void shouldRememberKeysInFilterUntilWindowEnds() {
+        when(delegate.deliverMessage(any(), any(), any())).thenReturn(Mono.empty());
+        deliver("ch1", "c1");
+
+        advance(Duration.ofSeconds(2));
+        deliver("ch1", "c1");
+        assertThat(gateway.getFilterDuplicates()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(4));
+        deliver("ch1", "c1");
+        assertThat(gateway.getFilterDuplicates()).isEqualTo(2);
+
+        advance(Duration.ofSeconds(5));
+        deliver("ch1", "c1");
+        verify(delegate, times(2)).deliverMessage(any(), any(), any());
+    }
+
+    @Test
+    void shouldHandDeduplicatedStreamToTheDelegateStream() {
+        List<String> streamed = new CopyOnWriteArrayList<>();
+        when(delegate.deliverMessages(any())).thenAnswer(invocation -> invocation.<Flux<Delivery>>getArgument(0)
+                .map(delivery -> {
+                    streamed.add(delivery.getChannelRef() + ":" + delivery.getMessage().getCorrelationId());
+                    return DeliveryResult.delivered(delivery);
+                }));
+
+        StepVerifier.create(gateway.deliverMessages(Flux.just(delivery("ch1", "c1"), delivery("ch1", "c1"),
+                        delivery("ch2", "c1"))))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        assertThat(streamed).containsExactly("ch1:c1", "ch2:c1");
+        assertThat(gateway.getExactDuplicates()).isEqualTo(1);
+        verify(delegate, times(1)).deliverMessages(any());
+        verify(delegate, never()).deliverMessage(any(), any(), any());
+    }
+
+    private void deliver(String channelRef, String correlationId) {
+        StepVerifier.create(gateway.deliverMessage(channelRef, "user", message(correlationId))).verifyComplete();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private static Delivery delivery(String channelRef, String correlationId) {
+        return Delivery.builder().channelRef(channelRef).userRef("user").message(message(correlationId)).build();
+    }
+
+    private static DeliverMessage message(String correlationId) {
+        return DeliverMessage.builder().messageId("m-" + correlationId).CorrelationId(correlationId).build();
+    }
+}
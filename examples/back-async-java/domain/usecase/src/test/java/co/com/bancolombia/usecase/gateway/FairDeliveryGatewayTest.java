@@ -0,0 +1,166 @@
+package co.com.bancolombia.usecase.gateway;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FairDeliveryGatewayTest {
+
+    private final AsyncDataFlowGateway delegate = mock(AsyncDataFlowGateway.class);
+    private final Sinks.Empty<Void> held = Sinks.empty();
+    private final List<String> delivered = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(delegate.deliverMessage(any(), any(), any())).thenAnswer(invocation -> {
+            DeliverMessage message = invocation.getArgument(2);
+            delivered.add(message.getMessageId());
+            return "hold".equals(message.getMessageId()) ? held.asMono() : Mono.empty();
+        });
+        when(delegate.deliverBatch(any())).thenAnswer(invocation -> {
+            List<Delivery> deliveries = invocation.getArgument(0);
+            deliveries.forEach(delivery -> delivered.add(delivery.getMessage().getMessageId()));
+            return "hold".equals(deliveries.getFirst().getMessage().getMessageId()) ? held.asMono() : Mono.empty();
+        });
+    }
+
+    @Test
+    void shouldLetChannelsTakeTurns() {
+        FairDeliveryGateway gateway = gateway(FairDeliverySettings.builder().maxConcurrency(1).build());
+
+        gateway.deliverMessage("noisy", "user", message("hold", "event")).subscribe();
+        List.of("a1", "a2", "a3").forEach(id -> gateway.deliverMessage("noisy", "user", message(id, "event")).subscribe());
+        gateway.deliverMessage("quiet", "user", message("b1", "event")).subscribe();
+        assertThat(gateway.getQueuedDeliveries()).isEqualTo(4);
+
+        held.tryEmitEmpty();
+        assertThat(delivered).containsExactly("hold", "a1", "b1", "a2", "a3");
+    }
+
+    @Test
+    void shouldServeLanesByWeight() {
+        FairDeliveryGateway gateway = gateway(FairDeliverySettings.builder()
+                .maxConcurrency(1)
+                .interactiveWeight(2)
+                .bulkWeight(1)
+                .bulkEventNames(Set.of("bulk"))
+                .build());
+
+        gateway.deliverMessage("ch", "user", message("hold", "event")).subscribe();
+        List.of("b1", "b2", "b3").forEach(id -> gateway.deliverMessage("job", "user", message(id, "bulk")).subscribe());
+        List.of("i1", "i2", "i3").forEach(id -> gateway.deliverMessage(id, "user", message(id, "event")).subscribe());
+
+        held.tryEmitEmpty();
+        assertThat(delivered).containsExactly("hold", "i1", "b1", "i2", "i3", "b2", "b3");
+    }
+
+    @Test
+    void shouldLetChannelsOfABatchTakeTurns() {
+        FairDeliveryGateway gateway = gateway(FairDeliverySettings.builder().maxConcurrency(1).build());
+
+        gateway.deliverMessage("noisy", "user", message("hold", "event")).subscribe();
+        gateway.deliverBatch(List.of(delivery("noisy", "a1"), delivery("noisy", "a2"), delivery("quiet", "b1"),
+                delivery("noisy", "a3"))).subscribe();
+        gateway.deliverMessage("noisy", "user", message("a4", "event")).subscribe();
+        assertThat(gateway.getQueuedDeliveries()).isEqualTo(5);
+
+        held.tryEmitEmpty();
+        assertThat(delivered).containsExactly("hold", "a1", "a2", "a3", "b1", "a4");
+    }
+
+    @Test
+    void shouldCountEveryDeliveryOfABatchInFlight() {
+        FairDeliveryGateway gateway = gateway(FairDeliverySettings.builder().maxConcurrency(3).build());
+
+        StepVerifier.create(gateway.deliverBatch(List.of(delivery("ch1", "hold"), delivery("ch1", "x1"),
+                        delivery("ch2", "y1"), delivery("ch2", "y2"))))
+                .then(() -> {
+                    assertThat(delivered).containsExactly("hold", "x1");
+                    assertThat(gateway.getInFlightDeliveries()).isEqualTo(2);
+                    assertThat(gateway.getQueuedDeliveries()).isEqualTo(2);
+                })
+                .then(held::tryEmitEmpty)
+                .verifyComplete();
+        assertThat(delivered).containsExactly("hold", "x1", "y1", "y2");
+        assertThat(gateway.getInFlightDeliveries()).isZero();
+    }
+
+    @Test
+    void shouldRejectWholeBatchWhenItDoesNotFitTheQueue() {
+        FairDeliveryGateway gateway = gateway(FairDeliverySettings.builder().maxConcurrency(1).maxQueued(2).build());
+
+        gateway.deliverMessage("ch", "user", message("hold", "event")).subscribe();
+        gateway.deliverMessage("ch", "user", message("m1", "event")).subscribe();
+
+        StepVerifier.create(gateway.deliverBatch(List.of(delivery("ch1", "a1"), delivery("ch2", "b1"))))
+                .verifyError(GatewayOverloadedException.class);
+        assertThat(gateway.getQueuedDeliveries()).isEqualTo(1);
+
+        held.tryEmitEmpty();
+        assertThat(delivered).containsExactly("hold", "m1");
+    }
+
+    @Test
+    void shouldLetChannelsOfAStreamTakeTurnsThroughTheDelegateStream() {
+        when(delegate.deliverMessages(any())).thenAnswer(invocation -> invocation.<Flux<Delivery>>getArgument(0)
+                .map(delivery -> {
+                    delivered.add(delivery.getMessage().getMessageId());
+                    return DeliveryResult.delivered(delivery);
+                }));
+        FairDeliveryGateway gateway = gateway(FairDeliverySettings.builder().maxConcurrency(1).build());
+
+        gateway.deliverMessage("noisy", "user", message("hold", "event")).subscribe();
+
+        StepVerifier.create(gateway.deliverMessages(Flux.just(delivery("noisy", "a1"), delivery("noisy", "a2"),
+                        delivery("quiet", "b1"))))
+                .then(() -> assertThat(gateway.getQueuedDeliveries()).isEqualTo(3))
+                .then(held::tryEmitEmpty)
+                .expectNextCount(3)
+                .verifyComplete();
+        assertThat(delivered).containsExactly("hold", "a1", "b1", "a2");
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        FairDeliveryGateway gateway = gateway(FairDeliverySettings.builder().maxConcurrency(1).maxQueued(1).build());
+
+        gateway.deliverMessage("ch", "user", message("hold", "event")).subscribe();
+        gateway.deliverMessage("ch", "user", message("m1", "event")).subscribe();
+
+        StepVerifier.create(gateway.deliverMessage("ch", "user", message("m2", "event")))
+                .verifyError(GatewayOverloadedException.class);
+    }
+
+    private FairDeliveryGateway gateway(FairDeliverySettings settings) {
+        return new FairDeliveryGateway(delegate, settings);
+    }
+
+    private static Delivery delivery(String channelRef, String messageId) {
+        return Delivery.builder()
+                .channelRef(channelRef)
+                .userRef("user")
+                .message(message(messageId, "event"))
+                .build();
+    }
+
+    private static DeliverMessage message(String messageId, String eventName) {
+        return DeliverMessage.builder().messageId(messageId).eventName(eventName).build();
+    }
+}
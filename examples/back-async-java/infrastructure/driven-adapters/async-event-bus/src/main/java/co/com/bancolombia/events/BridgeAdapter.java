@@ -1,42 +1,53 @@
 package co.com.bancolombia.events;
 
-import co.com.bancolombia.events.model.DTODeliverMessage;
+import co.com.bancolombia.events.encoder.ReplyEventEncoder;
 import co.com.bancolombia.events.model.ObjectResponse;
+import co.com.bancolombia.events.pipeline.PipelinedEventEmitter;
 import co.com.bancolombia.model.async.Credentials;
 import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.DeliveriesShedException;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
 import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
-import tools.jackson.databind.ObjectMapper;
+import co.com.bancolombia.model.async.gateways.IdGenerator;
 import io.cloudevents.CloudEvent;
-import io.cloudevents.core.builder.CloudEventBuilder;
-import io.cloudevents.jackson.JsonCloudEventData;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
 import org.reactivecommons.api.domain.DomainEventBus;
 import org.reactivecommons.async.impl.config.annotations.EnableDomainEventBus;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.net.URI;
-import java.time.OffsetDateTime;
-import java.util.Random;
-import java.util.UUID;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static reactor.core.publisher.Mono.from;
 
 @Log
-@RequiredArgsConstructor
 @EnableDomainEventBus
 @ConditionalOnProperty(value = "adapter.reply-mode", havingValue = "BRIDGE")
 public class BridgeAdapter implements AsyncDataFlowGateway {
-    public static final String SOME_EVENT_NAME = "ch-ms-async-callback.svp.reply";
+    public static final String SOME_EVENT_NAME = ReplyEventEncoder.EVENT_TYPE;
+    // channels of a stream are spread over this many lanes, each emitting its events one at a time
+    private static final int STREAM_LANES = 64;
     private final DomainEventBus domainEventBus;
-    private final ObjectMapper om;
     private final WebClient client;
+    private final ObjectProvider<PipelinedEventEmitter> pipelinedEmitter;
+    private final ReplyEventEncoder encoder;
     @Value("${spring.application.name}")
     public String applicationRef;
-    private static final Random random = new Random();
+
+    public BridgeAdapter(DomainEventBus domainEventBus, WebClient client,
+                         ObjectProvider<PipelinedEventEmitter> pipelinedEmitter, IdGenerator idGenerator) {
+        this.domainEventBus = domainEventBus;
+        this.client = client;
+        this.pipelinedEmitter = pipelinedEmitter;
+        this.encoder = new ReplyEventEncoder(idGenerator);
+    }
 
     @Override
     public Mono<Credentials> generateCredentials(String userIdentifier) {
@@ -53,25 +64,45 @@ public class BridgeAdapter implements AsyncDataFlowGateway {
 
     @Override
     public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
-        DTODeliverMessage deliverMessage = DTODeliverMessage.builder()
-                .request(new DTODeliverMessage.Request(userRef))
-                .reply(DTODeliverMessage.Reply.builder()
-                        .correlationId(message.getCorrelationId())
-                        .eventName(message.getEventName())
-                        .messageData(message.getMessageData())
-                        .messageId(message.getMessageId())
-                        .build())
-                .build();
+        return emit(encoder.encode(userRef, message));
+    }
 
-        CloudEvent eventCloudEvent = CloudEventBuilder.v1()
-                .withId(UUID.randomUUID().toString())
-                .withSource(URI.create("https://reactive-commons.org/foos"))
-                .withType(SOME_EVENT_NAME)
-                .withTime(OffsetDateTime.now())
-                .withData("application/json", JsonCloudEventData.wrap(om.valueToTree(deliverMessage)))
-                .build();
+    // every event is emitted on its own, one the pipeline sheds is reported without failing the others
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        return DeliveriesShedException.whenParts(deliveries.stream().map(List::of).toList(), part ->
+                emit(encoder.encode(part.getFirst().getUserRef(), part.getFirst().getMessage())));
+    }
 
-        return from(domainEventBus.emit(eventCloudEvent));
+    /**
+     * Encodes and emits the stream straight to the broker. Every channel is hashed to a lane and each
+     * lane waits for the confirm of an event before emitting the next, so a channel's events keep
+     * their order while lanes run in parallel.
+     */
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return deliveries
+                .groupBy(delivery -> Math.floorMod(Objects.hashCode(delivery.getChannelRef()), STREAM_LANES))
+                .flatMap(lane -> lane.concatMap(delivery -> emit(encoder.encode(delivery.getUserRef(),
+                                delivery.getMessage()))
+                                .thenReturn(DeliveryResult.delivered(delivery))
+                                .onErrorResume(error -> Mono.just(DeliveryResult.failed(delivery, error)))),
+                        STREAM_LANES);
+    }
+
+    /**
+     * Encodes the reply event of a delivery without emitting it.
+     */
+    public void warmUp(Delivery delivery) {
+        encoder.encode(delivery.getUserRef(), delivery.getMessage());
+    }
+
+    private Mono<Void> emit(CloudEvent event) {
+        PipelinedEventEmitter emitter = pipelinedEmitter.getIfAvailable();
+        if (emitter != null) {
+            return emitter.emit(event);
+        }
+        return from(domainEventBus.emit(event));
     }
 
     private static Credentials mapperToCredentials(ObjectResponse dtoCredentials) {
@@ -82,6 +113,8 @@ public class BridgeAdapter implements AsyncDataFlowGateway {
     }
 
     private static String generateUserId() {
+        // per thread generator, a shared Random is contended by every event loop
+        ThreadLocalRandom random = ThreadLocalRandom.current();
         int length = random.nextInt(3) + 8;
         StringBuilder randomNumber = new StringBuilder();
 
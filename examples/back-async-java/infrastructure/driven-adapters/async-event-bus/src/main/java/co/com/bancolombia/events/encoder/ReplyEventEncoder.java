@@ -0,0 +1,151 @@
+package co.com.bancolombia.events.encoder;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Message;
+import co.com.bancolombia.model.async.gateways.IdGenerator;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.core.data.BytesCloudEventData;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Builds the reply CloudEvent emitted in bridge mode. The event data is written straight to JSON bytes
+ * from precomputed fragments, producing the same document as serializing
+ * {@link co.com.bancolombia.events.model.DTODeliverMessage} without building the intermediate tree. The
+ * fragments follow the fields of {@link Message}; a property added there must be written here too.
+ */
+public class ReplyEventEncoder {
+    public static final String EVENT_TYPE = "ch-ms-async-callback.svp.reply";
+    public static final URI EVENT_SOURCE = URI.create("https://reactive-commons.org/foos");
+    private static final String CONTENT_TYPE = "application/json";
+
+    private static final byte[] SESSION_TRACKER = ascii("{\"request\":{\"headers\":{\"session-tracker\":");
+    private static final byte[] CHANNEL_REF = ascii("},\"body\":{}},\"reply\":{\"channelRef\":");
+    private static final byte[] MESSAGE_ID = ascii(",\"messageId\":");
+    private static final byte[] CORRELATION_ID = ascii(",\"correlationId\":");
+    private static final byte[] MESSAGE_DATA = ascii(",\"messageData\":");
+    private static final byte[] EVENT_NAME = ascii(",\"eventName\":");
+    private static final byte[] CODE = ascii("{\"code\":");
+    private static final byte[] TITLE = ascii(",\"title\":");
+    private static final byte[] DETAIL = ascii(",\"detail\":");
+    private static final byte[] SEVERITY = ascii(",\"severity\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] END_OBJECT = ascii("}");
+    private static final byte[] END_REPLY = ascii("}}");
+    private static final byte[][] ESCAPES = new byte[128][];
+
+    private static final ThreadLocal<JsonBytes> BUFFERS = ThreadLocal.withInitial(JsonBytes::new);
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = ascii(String.format("\\u%04x", c));
+        }
+        ESCAPES['"'] = ascii("\\\"");
+        ESCAPES['\\'] = ascii("\\\\");
+        ESCAPES['\n'] = ascii("\\n");
+        ESCAPES['\r'] = ascii("\\r");
+        ESCAPES['\t'] = ascii("\\t");
+    }
+
+    private final IdGenerator idGenerator;
+
+    public ReplyEventEncoder(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+
+    public CloudEvent encode(String userRef, DeliverMessage message) {
+        return CloudEventBuilder.v1()
+                .withId(idGenerator.newId())
+                .withSource(EVENT_SOURCE)
+                .withType(EVENT_TYPE)
+                .withTime(OffsetDateTime.now(ZoneOffset.UTC))
+                .withData(CONTENT_TYPE, BytesCloudEventData.wrap(encodeData(userRef, message)))
+                .build();
+    }
+
+    public byte[] encodeData(String userRef, DeliverMessage message) {
+        JsonBytes out = BUFFERS.get().reset();
+        out.raw(SESSION_TRACKER).string(userRef)
+                .raw(CHANNEL_REF).raw(NULL)
+                .raw(MESSAGE_ID).string(message.getMessageId())
+                .raw(CORRELATION_ID).string(message.getCorrelationId())
+                .raw(MESSAGE_DATA);
+        Message data = message.getMessageData();
+        if (data == null) {
+            out.raw(NULL);
+        } else {
+            out.raw(CODE).string(data.getCode())
+                    .raw(TITLE).string(data.getTitle())
+                    .raw(DETAIL).string(data.getDetail())
+                    .raw(SEVERITY).string(data.getSeverity())
+                    .raw(END_OBJECT);
+        }
+        return out.raw(EVENT_NAME).string(message.getEventName())
+                .raw(END_REPLY)
+                .toByteArray();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    private static final class JsonBytes {
+        private byte[] buffer = new byte[512];
+        private int length;
+
+        private JsonBytes reset() {
+            length = 0;
+            return this;
+        }
+
+        private JsonBytes raw(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+            return this;
+        }
+
+        private JsonBytes string(String value) {
+            if (value == null) {
+                return raw(NULL);
+            }
+            ensure(value.length() + 2);
+            buffer[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 128 && ESCAPES[c] == null) {
+                    ensure(1);
+                    buffer[length++] = (byte) c;
+                } else if (c < 128) {
+                    raw(ESCAPES[c]);
+                } else {
+                    int end = i + 1;
+                    while (end < value.length() && value.charAt(end) >= 128) {
+                        end++;
+                    }
+                    raw(value.substring(i, end).getBytes(UTF_8));
+                    i = end - 1;
+                }
+            }
+            ensure(1);
+            buffer[length++] = '"';
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+    }
+}
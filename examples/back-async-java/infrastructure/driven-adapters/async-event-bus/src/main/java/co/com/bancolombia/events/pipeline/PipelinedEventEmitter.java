@@ -0,0 +1,108 @@
+package co.com.bancolombia.events.pipeline;
+
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import io.cloudevents.CloudEvent;
+import lombok.extern.java.Log;
+import org.reactivecommons.api.domain.DomainEventBus;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps up to a window of events published and waiting for their broker confirm, instead of one
+ * round trip per caller. Each emit completes its caller when that event is confirmed; a nacked
+ * publish is retried on its own without holding back the rest of the window, any other failure is
+ * returned to its caller as is. Events waiting for a free slot of the window are kept in a bounded
+ * queue, emits arriving while it is full fail fast with a {@link GatewayOverloadedException}.
+ */
+@Log
+@Component
+@ConditionalOnExpression("'${adapter.reply-mode}' == 'BRIDGE' and ${adapter.bridge.pipeline.enabled:false}")
+public class PipelinedEventEmitter implements DisposableBean {
+    private final DomainEventBus domainEventBus;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Set<String> nackErrors;
+    private final Sinks.Many<PendingEmit> queue;
+    private final Disposable pipeline;
+
+    public PipelinedEventEmitter(DomainEventBus domainEventBus,
+                                 @Value("${adapter.bridge.pipeline.window:256}") int window,
+                                 @Value("${adapter.bridge.pipeline.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${adapter.bridge.pipeline.max-retries:3}") int maxRetries,
+                                 @Value("${adapter.bridge.pipeline.retry-backoff:50ms}") Duration retryBackoff,
+                                 @Value("${adapter.bridge.pipeline.nack-errors:"
+                                         + "org.reactivecommons.async.commons.exceptions.SendFailureNoAckException}")
+                                 List<String> nackErrors) {
+        this.domainEventBus = domainEventBus;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.nackErrors = Set.copyOf(nackErrors);
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<PendingEmit>get(queueCapacity).get());
+        this.pipeline = queue.asFlux()
+                .flatMap(this::publish, window)
+                .subscribe();
+    }
+
+    public Mono<Void> emit(CloudEvent event) {
+        return Mono.defer(() -> {
+            PendingEmit pending = new PendingEmit(event, Sinks.empty());
+            Sinks.EmitResult emitted;
+            // concurrent callers only contend for the emission, the offer itself never waits
+            while ((emitted = queue.tryEmitNext(pending)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (emitted == Sinks.EmitResult.FAIL_OVERFLOW) {
+                return Mono.error(new GatewayOverloadedException("Event pipeline queue is full"));
+            }
+            if (emitted.isFailure()) {
+                return Mono.error(new GatewayOverloadedException("Event pipeline queue is closed"));
+            }
+            return pending.confirm().asMono();
+        });
+    }
+
+    private Mono<Void> publish(PendingEmit pending) {
+        return Mono.defer(() -> Mono.from(domainEventBus.emit(pending.event())))
+                .retryWhen(Retry.backoff(maxRetries, retryBackoff)
+                        .filter(this::isNack)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(ignored -> pending.confirm().tryEmitEmpty())
+                .onErrorResume(error -> {
+                    log.warning(() -> "Event " + pending.event().getId() + " not confirmed: " + error.getMessage());
+                    pending.confirm().tryEmitError(error);
+                    return Mono.empty();
+                });
+    }
+
+    // the event bus wraps the broker nack in its own exceptions, so the whole cause chain is checked
+    private boolean isNack(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (nackErrors.contains(cause.getClass().getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void destroy() {
+        // completing the queue lets the events already accepted finish before the pipeline terminates
+        if (queue.tryEmitComplete().isFailure()) {
+            pipeline.dispose();
+        }
+    }
+
+    private record PendingEmit(CloudEvent event, Sinks.Empty<Void> confirm) {
+    }
+}
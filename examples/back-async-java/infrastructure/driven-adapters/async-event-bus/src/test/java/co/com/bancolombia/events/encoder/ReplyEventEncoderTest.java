@@ -0,0 +1,75 @@
+package co.com.bancolombia.events.encoder;
+
+import co.com.bancolombia.events.model.DTODeliverMessage;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Message;
+import io.cloudevents.CloudEvent;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplyEventEncoderTest {
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private final ReplyEventEncoder encoder = new ReplyEventEncoder(() -> "event-id");
+
+    @Test
+    void shouldEncodeSameDocumentAsDtoSerialization() {
+        DeliverMessage message = DeliverMessage.builder()
+                .messageId("m1")
+                .CorrelationId("c1")
+                .eventName("businessEvent")
+                .messageData(Message.builder()
+                        .code("100")
+                        .title("quote \" backslash \\ tab \t")
+                        .detail("acción ✓ \u0001")
+                        .severity("INFO")
+                        .build())
+                .build();
+        DTODeliverMessage dto = DTODeliverMessage.builder()
+                .request(new DTODeliverMessage.Request("user-1"))
+                .reply(DTODeliverMessage.Reply.builder()
+                        .correlationId(message.getCorrelationId())
+                        .eventName(message.getEventName())
+                        .messageData(message.getMessageData())
+                        .messageId(message.getMessageId())
+                        .build())
+                .build();
+
+        assertThat(mapper.readTree(encoder.encodeData("user-1", message)))
+                .isEqualTo(mapper.valueToTree(dto));
+    }
+
+    // fills every field through reflection, so a property added to Message fails here until the encoder writes it
+    @Test
+    void shouldWriteEveryPropertyOfMessageData() throws IllegalAccessException {
+        Message data = Message.builder().build();
+        for (Field field : Message.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                field.set(data, field.getName() + "-value");
+            }
+        }
+
+        JsonNode written = mapper.readTree(encoder.encodeData("user-1",
+                DeliverMessage.builder().messageData(data).build())).at("/reply/messageData");
+
+        assertThat(written).isEqualTo(mapper.valueToTree(data));
+    }
+
+    @Test
+    void shouldBuildReplyCloudEvent() {
+        CloudEvent event = encoder.encode("user-1", DeliverMessage.builder().messageId("m1").build());
+
+        assertThat(event.getType()).isEqualTo(ReplyEventEncoder.EVENT_TYPE);
+        assertThat(event.getSource()).isEqualTo(ReplyEventEncoder.EVENT_SOURCE);
+        assertThat(event.getDataContentType()).isEqualTo("application/json");
+        assertThat(mapper.readTree(event.getData().toBytes()).at("/reply/messageData").isNull()).isTrue();
+    }
+}
@@ -0,0 +1,112 @@
+package co.com.bancolombia.events.pipeline;
+
+import io.cloudevents.CloudEvent;
+import org.reactivecommons.api.domain.DomainEventBus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Stands in for the broker behind the event bus: every emitted event is recorded as published and
+ * waits for a confirm. Confirms are given by the test, or right away in auto confirm mode; a nack is
+ * returned to the publisher as a {@link Nack} and a broken channel as an {@link IllegalStateException}.
+ */
+class InProcessBroker {
+    private final boolean autoConfirm;
+    private final List<String> published = new ArrayList<>();
+    private final Queue<Publish> awaitingConfirm = new ArrayDeque<>();
+    private final Map<String, Integer> nacks = new HashMap<>();
+    private final Map<String, RuntimeException> failures = new HashMap<>();
+
+    private InProcessBroker(boolean autoConfirm) {
+        this.autoConfirm = autoConfirm;
+    }
+
+    static InProcessBroker manualConfirm() {
+        return new InProcessBroker(false);
+    }
+
+    static InProcessBroker autoConfirm() {
+        return new InProcessBroker(true);
+    }
+
+    DomainEventBus bus() {
+        // a proxy keeps the stand-in independent of the exact set of emit overloads of the bus
+        return (DomainEventBus) Proxy.newProxyInstance(DomainEventBus.class.getClassLoader(),
+                new Class<?>[]{DomainEventBus.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "InProcessBroker";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> publish((CloudEvent) args[args.length - 1]);
+                });
+    }
+
+    /**
+     * Nacks the next publishes of the event, the given number of times.
+     */
+    synchronized void nack(String eventId, int times) {
+        nacks.put(eventId, times);
+    }
+
+    synchronized void breakChannelOn(String eventId) {
+        failures.put(eventId, new IllegalStateException("Channel closed while publishing " + eventId));
+    }
+
+    synchronized void confirm(String eventId) {
+        Iterator<Publish> iterator = awaitingConfirm.iterator();
+        while (iterator.hasNext()) {
+            Publish publish = iterator.next();
+            if (publish.eventId().equals(eventId)) {
+                iterator.remove();
+                publish.confirm().tryEmitEmpty();
+                return;
+            }
+        }
+        throw new IllegalStateException(eventId + " is not waiting for a confirm");
+    }
+
+    synchronized List<String> published() {
+        return List.copyOf(published);
+    }
+
+    synchronized int awaitingConfirm() {
+        return awaitingConfirm.size();
+    }
+
+    private synchronized Mono<Void> publish(CloudEvent event) {
+        String eventId = event.getId();
+        published.add(eventId);
+        RuntimeException failure = failures.get(eventId);
+        if (failure != null) {
+            return Mono.error(failure);
+        }
+        int remainingNacks = nacks.getOrDefault(eventId, 0);
+        if (remainingNacks > 0) {
+            nacks.put(eventId, remainingNacks - 1);
+            return Mono.error(new Nack(eventId));
+        }
+        if (autoConfirm) {
+            return Mono.empty();
+        }
+        Sinks.Empty<Void> confirm = Sinks.empty();
+        awaitingConfirm.add(new Publish(eventId, confirm));
+        return confirm.asMono();
+    }
+
+    static final class Nack extends RuntimeException {
+        Nack(String eventId) {
+            super("Broker nacked " + eventId);
+        }
+    }
+
+    private record Publish(String eventId, Sinks.Empty<Void> confirm) {
+    }
+}
@@ -0,0 +1,118 @@
+package co.com.bancolombia.events.pipeline;
+
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelinedEventEmitterTest {
+
+    private PipelinedEventEmitter emitter;
+
+    @AfterEach
+    void tearDown() {
+        emitter.destroy();
+    }
+
+    @Test
+    void shouldKeepAtMostWindowEventsWaitingForConfirm() {
+        InProcessBroker broker = InProcessBroker.manualConfirm();
+        emitter = emitter(broker, 2, 16, 0);
+
+        for (int i = 0; i < 5; i++) {
+            emitter.emit(event("e" + i)).subscribe();
+        }
+        assertThat(broker.published()).containsExactly("e0", "e1");
+
+        broker.confirm("e0");
+        assertThat(broker.published()).containsExactly("e0", "e1", "e2");
+        assertThat(broker.awaitingConfirm()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCompleteCallerOnlyWhenItsEventIsConfirmed() {
+        InProcessBroker broker = InProcessBroker.manualConfirm();
+        emitter = emitter(broker, 8, 16, 0);
+
+        StepVerifier.create(emitter.emit(event("e1")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .then(() -> broker.confirm("e1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRetryOnlyNackedEvents() {
+        InProcessBroker broker = InProcessBroker.autoConfirm();
+        broker.nack("e2", 1);
+        emitter = emitter(broker, 8, 16, 2);
+
+        StepVerifier.create(Mono.when(emitter.emit(event("e1")), emitter.emit(event("e2")), emitter.emit(event("e3"))))
+                .verifyComplete();
+
+        assertThat(broker.published()).containsExactly("e1", "e2", "e3", "e2");
+    }
+
+    @Test
+    void shouldFailCallerWithTheNackWhenRetriesAreExhausted() {
+        InProcessBroker broker = InProcessBroker.autoConfirm();
+        broker.nack("e1", 5);
+        emitter = emitter(broker, 8, 16, 1);
+
+        StepVerifier.create(emitter.emit(event("e1")))
+                .expectError(InProcessBroker.Nack.class)
+                .verify(Duration.ofSeconds(5));
+        assertThat(broker.published()).containsExactly("e1", "e1");
+    }
+
+    @Test
+    void shouldNotRetryFailuresOtherThanNacks() {
+        InProcessBroker broker = InProcessBroker.autoConfirm();
+        broker.breakChannelOn("e1");
+        emitter = emitter(broker, 8, 16, 3);
+
+        StepVerifier.create(emitter.emit(event("e1")))
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+        assertThat(broker.published()).containsExactly("e1");
+    }
+
+    @Test
+    void shouldRejectEventsWhileTheSubmissionQueueIsFull() {
+        InProcessBroker broker = InProcessBroker.manualConfirm();
+        emitter = emitter(broker, 1, 1, 0);
+
+        emitter.emit(event("e0")).subscribe();
+        emitter.emit(event("e1")).subscribe();
+
+        StepVerifier.create(emitter.emit(event("e2")))
+                .expectError(GatewayOverloadedException.class)
+                .verify();
+
+        broker.confirm("e0");
+        assertThat(broker.published()).containsExactly("e0", "e1");
+    }
+
+    private static PipelinedEventEmitter emitter(InProcessBroker broker, int window, int queueCapacity,
+                                                 int maxRetries) {
+        return new PipelinedEventEmitter(broker.bus(), window, queueCapacity, maxRetries, Duration.ofMillis(1),
+                List.of(InProcessBroker.Nack.class.getName()));
+    }
+
+    private static CloudEvent event(String id) {
+        return CloudEventBuilder.v1()
+                .withId(id)
+                .withSource(URI.create("https://reactive-commons.org/foos"))
+                .withType("test")
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package co.com.bancolombia.outbox;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary form of a {@link Delivery}: its string fields in a fixed order, each one as a length
+ * prefixed UTF-8 value where a negative length stands for null.
+ */
+final class DeliveryCodec {
+
+    private DeliveryCodec() {
+    }
+
+    static byte[] encode(Delivery delivery) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, delivery.getChannelRef());
+            writeString(out, delivery.getUserRef());
+            DeliverMessage message = delivery.getMessage();
+            out.writeBoolean(message != null);
+            if (message != null) {
+                writeString(out, message.getChannelRef());
+                writeString(out, message.getMessageId());
+                writeString(out, message.getCorrelationId());
+                writeString(out, message.getEventName());
+                Message data = message.getMessageData();
+                out.writeBoolean(data != null);
+                if (data != null) {
+                    writeString(out, data.getCode());
+                    writeString(out, data.getTitle());
+                    writeString(out, data.getDetail());
+                    writeString(out, data.getSeverity());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Delivery decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            Delivery.DeliveryBuilder delivery = Delivery.builder()
+                    .channelRef(readString(in))
+                    .userRef(readString(in));
+            if (in.readBoolean()) {
+                DeliverMessage.DeliverMessageBuilder message = DeliverMessage.builder()
+                        .channelRef(readString(in))
+                        .messageId(readString(in))
+                        .CorrelationId(readString(in))
+                        .eventName(readString(in));
+                if (in.readBoolean()) {
+                    message.messageData(Message.builder()
+                            .code(readString(in))
+                            .title(readString(in))
+                            .detail(readString(in))
+                            .severity(readString(in))
+                            .build());
+                }
+                delivery.message(message.build());
+            }
+            return delivery.build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
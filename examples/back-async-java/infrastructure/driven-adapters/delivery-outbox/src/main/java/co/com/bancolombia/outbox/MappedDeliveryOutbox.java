@@ -0,0 +1,256 @@
+package co.com.bancolombia.outbox;
+
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.gateways.DeliveryOutbox;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * {@link DeliveryOutbox} kept in an append only log of fixed size memory mapped segments. Every record is
+ * {@code [length:int][state:byte][dueAt:long][payload]}, the length being written last so that a record
+ * torn by a crash is ignored. Acknowledging flips the state byte in place, and a segment is deleted as
+ * soon as it is sealed and all of its records are acknowledged. On startup the pending records of the
+ * previous segments are copied into a fresh one and the old files removed, which keeps the log compact
+ * across restarts.
+ */
+@Log
+@Component
+@ConditionalOnProperty(name = "delivery.outbox.enabled", havingValue = "true")
+public class MappedDeliveryOutbox implements DeliveryOutbox, DisposableBean {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int STATE_OFFSET = Integer.BYTES;
+    private static final int DUE_AT_OFFSET = STATE_OFFSET + Byte.BYTES;
+    private static final int HEADER_SIZE = DUE_AT_OFFSET + Long.BYTES;
+    private static final byte PENDING = 1;
+    private static final byte ACKNOWLEDGED = 2;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+
+    private final Path directory;
+    private final long segmentSize;
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private Segment active;
+    private long writeOffset;
+
+    public MappedDeliveryOutbox(@Value("${delivery.outbox.directory:/tmp/delivery-outbox}") Path directory,
+                                @Value("${delivery.outbox.segment-size:64MB}") DataSize segmentSize) {
+        if (segmentSize.toBytes() <= HEADER_SIZE || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid outbox segment size: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize.toBytes();
+        try {
+            Files.createDirectories(directory);
+            List<Path> previous = listSegments();
+            active = open(previous.isEmpty() ? 0 : idOf(previous.getLast()) + 1);
+            for (Path path : previous) {
+                compact(path);
+            }
+            // the copies must be on disk before the originals go away
+            segments.values().forEach(segment -> segment.memory.force());
+            for (Path path : previous) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the delivery outbox at " + directory, e);
+        }
+    }
+
+    @Override
+    public long append(Delivery delivery, long dueAtMillis) {
+        return write(DeliveryCodec.encode(delivery), dueAtMillis);
+    }
+
+    @Override
+    public Delivery read(long position) {
+        Segment segment = segment(position);
+        long offset = offsetOf(position);
+        int length = segment.memory.get(INT, offset);
+        return DeliveryCodec.decode(segment.memory.asSlice(offset + HEADER_SIZE, length)
+                .toArray(ValueLayout.JAVA_BYTE));
+    }
+
+    @Override
+    public void acknowledge(long position) {
+        Segment segment = segment(position);
+        long offset = offsetOf(position);
+        if (segment.memory.get(ValueLayout.JAVA_BYTE, offset + STATE_OFFSET) != PENDING) {
+            return;
+        }
+        segment.memory.set(ValueLayout.JAVA_BYTE, offset + STATE_OFFSET, ACKNOWLEDGED);
+        if (segment.live.decrementAndGet() == 0 && segment.sealed) {
+            release(segment);
+        }
+    }
+
+    @Override
+    public void replay(PendingEntryConsumer consumer) {
+        new TreeMap<>(segments).values().forEach(segment ->
+                scan(segment.memory, (offset, state, dueAtMillis, length) -> {
+                    if (state == PENDING) {
+                        consumer.accept(positionOf(segment.id, offset), dueAtMillis);
+                    }
+                }));
+    }
+
+    @Override
+    public synchronized void destroy() {
+        segments.values().forEach(segment -> {
+            segment.memory.force();
+            segment.arena.close();
+        });
+        segments.clear();
+    }
+
+    private synchronized long write(byte[] payload, long dueAtMillis) {
+        long size = (long) HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException("Delivery of " + payload.length
+                    + " bytes does not fit an outbox segment");
+        }
+        if (writeOffset + size > segmentSize) {
+            Segment previous = active;
+            active = open(previous.id + 1);
+            writeOffset = 0;
+            previous.sealed = true;
+            if (previous.live.get() == 0) {
+                release(previous);
+            }
+        }
+        MemorySegment memory = active.memory;
+        long offset = writeOffset;
+        memory.set(ValueLayout.JAVA_BYTE, offset + STATE_OFFSET, PENDING);
+        memory.set(LONG, offset + DUE_AT_OFFSET, dueAtMillis);
+        MemorySegment.copy(payload, 0, memory, ValueLayout.JAVA_BYTE, offset + HEADER_SIZE, payload.length);
+        memory.set(INT, offset, payload.length);
+        active.live.incrementAndGet();
+        writeOffset += size;
+        return positionOf(active.id, offset);
+    }
+
+    private void compact(Path path) throws IOException {
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment memory = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            scan(memory, (offset, state, dueAtMillis, length) -> {
+                if (state == PENDING) {
+                    write(memory.asSlice(offset + HEADER_SIZE, length).toArray(ValueLayout.JAVA_BYTE), dueAtMillis);
+                }
+            });
+        }
+    }
+
+    private static void scan(MemorySegment memory, RecordVisitor visitor) {
+        long offset = 0;
+        while (offset + HEADER_SIZE <= memory.byteSize()) {
+            int length = memory.get(INT, offset);
+            // a zero length is the unwritten tail of the segment
+            if (length <= 0 || offset + HEADER_SIZE + length > memory.byteSize()) {
+                return;
+            }
+            visitor.visit(offset, memory.get(ValueLayout.JAVA_BYTE, offset + STATE_OFFSET),
+                    memory.get(LONG, offset + DUE_AT_OFFSET), length);
+            offset += HEADER_SIZE + length;
+        }
+    }
+
+    private Segment open(int id) {
+        Path path = directory.resolve(SEGMENT_PREFIX + String.format("%010d", id) + SEGMENT_SUFFIX);
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Segment segment = new Segment(id, path, arena,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize, arena));
+            segments.put(id, segment);
+            return segment;
+        } catch (IOException e) {
+            arena.close();
+            throw new UncheckedIOException("Unable to create outbox segment " + path, e);
+        }
+    }
+
+    private void release(Segment segment) {
+        if (!segments.remove(segment.id, segment)) {
+            return;
+        }
+        segment.arena.close();
+        try {
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warning(() -> "Unable to delete outbox segment " + segment.path + ": " + e.getMessage());
+        }
+    }
+
+    private Segment segment(long position) {
+        Segment segment = segments.get((int) (position >>> 32));
+        if (segment == null) {
+            throw new IllegalStateException("Outbox position " + position + " is no longer available");
+        }
+        return segment;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted(Comparator.comparingInt(MappedDeliveryOutbox::idOf))
+                    .toList();
+        }
+    }
+
+    private static int idOf(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long positionOf(int segmentId, long offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private static long offsetOf(long position) {
+        return position & 0xFFFF_FFFFL;
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        void visit(long offset, byte state, long dueAtMillis, int length);
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final Path path;
+        private final Arena arena;
+        private final MemorySegment memory;
+        private final AtomicInteger live = new AtomicInteger();
+        private volatile boolean sealed;
+
+        private Segment(int id, Path path, Arena arena, MemorySegment memory) {
+            this.id = id;
+            this.path = path;
+            this.arena = arena;
+            this.memory = memory;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package co.com.bancolombia.outbox;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.Message;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedDeliveryOutboxTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void shouldReadBackAppendedDelivery() {
+        MappedDeliveryOutbox outbox = new MappedDeliveryOutbox(directory, DataSize.ofKilobytes(64));
+
+        Delivery read = outbox.read(outbox.append(delivery("ch1"), 1_000L));
+
+        assertThat(read.getChannelRef()).isEqualTo("ch1");
+        assertThat(read.getUserRef()).isNull();
+        assertThat(read.getMessage().getMessageId()).isEqualTo("m-ch1");
+        assertThat(read.getMessage().getMessageData().getTitle()).isEqualTo("título");
+        outbox.destroy();
+    }
+
+    @Test
+    void shouldReplayOnlyUnacknowledgedEntriesAfterRestart() {
+        MappedDeliveryOutbox outbox = new MappedDeliveryOutbox(directory, DataSize.ofKilobytes(64));
+        long first = outbox.append(delivery("ch1"), 1_000L);
+        outbox.append(delivery("ch2"), 2_000L);
+        outbox.acknowledge(first);
+        outbox.destroy();
+
+        MappedDeliveryOutbox reopened = new MappedDeliveryOutbox(directory, DataSize.ofKilobytes(64));
+        List<Long> positions = new ArrayList<>();
+        List<Long> dueAt = new ArrayList<>();
+        reopened.replay((position, dueAtMillis) -> {
+            positions.add(position);
+            dueAt.add(dueAtMillis);
+        });
+
+        assertThat(dueAt).containsExactly(2_000L);
+        assertThat(reopened.read(positions.getFirst()).getChannelRef()).isEqualTo("ch2");
+        reopened.destroy();
+    }
+
+    @Test
+    void shouldDeleteSealedSegmentOnceEveryEntryIsAcknowledged() throws IOException {
+        MappedDeliveryOutbox outbox = new MappedDeliveryOutbox(directory, DataSize.ofBytes(256));
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            positions.add(outbox.append(delivery("ch" + i), i));
+        }
+        assertThat(segmentFiles()).isGreaterThan(1);
+
+        positions.forEach(outbox::acknowledge);
+
+        assertThat(segmentFiles()).isEqualTo(1);
+        outbox.destroy();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static Delivery delivery(String channelRef) {
+        return Delivery.builder()
+                .channelRef(channelRef)
+                .message(DeliverMessage.builder()
+                        .channelRef(channelRef)
+                        .messageId("m-" + channelRef)
+                        .eventName("businessEvent")
+                        .messageData(Message.builder().code("200").title("título").build())
+                        .build())
+                .build();
+    }
+}
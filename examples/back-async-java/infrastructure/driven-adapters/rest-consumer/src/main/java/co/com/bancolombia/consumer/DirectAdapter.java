@@ -1,27 +1,54 @@
 package co.com.bancolombia.consumer;
 
+import co.com.bancolombia.consumer.batch.DeliverBatchDispatcher;
+import co.com.bancolombia.consumer.batch.DiscardedMessageException;
+import co.com.bancolombia.consumer.codec.DeliveryPayloadWriter;
 import co.com.bancolombia.consumer.models.DTOCredentials;
+import co.com.bancolombia.consumer.models.DTODeliverBatch;
+import co.com.bancolombia.consumer.models.DTODeliverBatchResponse;
 import co.com.bancolombia.consumer.models.DTODeliverMessage;
 import co.com.bancolombia.consumer.models.ObjectRequest;
 import co.com.bancolombia.consumer.models.ObjectResponse;
+import co.com.bancolombia.consumer.routing.ChannelSenderRouter;
 import co.com.bancolombia.model.async.Credentials;
 import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
 import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
 @Service
 @RequiredArgsConstructor
 @ConditionalOnProperty(value = "adapter.reply-mode", havingValue = "DIRECT")
 public class DirectAdapter implements AsyncDataFlowGateway {
+    // channels of a stream are spread over this many lanes, each sending its batches one at a time
+    private static final int STREAM_LANES = 64;
+    private static final Duration STREAM_BATCH_WAIT = Duration.ofMillis(20);
+
     @Value("${spring.application.name}")
     public String applicationRef;
 
     private final WebClient client;
+    private final ObjectProvider<DeliverBatchDispatcher> batchDispatcher;
+    private final DeliveryPayloadWriter payloadWriter;
+    private final ChannelSenderRouter router;
 
 
     // these methods are an example that illustrates the implementation of WebClient.
@@ -41,20 +68,120 @@ public class DirectAdapter implements AsyncDataFlowGateway {
                 .user_ref(userIdentifier)
                 .build();
 
-        return client
-                .post().uri("/create")
-                .body(Mono.just(request), ObjectRequest.class)
-                .retrieve()
-                .bodyToMono(DTOCredentials.class)
+        return router.call(router.leastLoaded(), node -> node
+                        .post().uri("/create")
+                        .body(Mono.just(request), ObjectRequest.class)
+                        .retrieve()
+                        .bodyToMono(DTOCredentials.class))
                 .map(DirectAdapter::mapperToCredentials);
     }
 
     @Override
     public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage deliverMessage) {
-        return client
-                .post().uri("/deliver_message")
-                .bodyValue(mapperDTO(deliverMessage))
-                .retrieve().toBodilessEntity().then();
+        DeliverBatchDispatcher dispatcher = batchDispatcher.getIfAvailable();
+        if (dispatcher != null) {
+            return dispatcher.deliver(mapperDTO(deliverMessage));
+        }
+        return router.call(router.nodeFor(deliverMessage.getChannelRef()),
+                node -> payloadWriter.post(node, "/deliver_message", mapperDTO(deliverMessage),
+                        response -> response.toBodilessEntity().then()));
+    }
+
+    /**
+     * Sends the deliveries as deliver_batch calls per node. Messages the sender discarded fail the
+     * returned Mono once every call has finished.
+     */
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        Map<ChannelSenderRouter.Node, List<Delivery>> byNode = deliveries.stream()
+                .collect(Collectors.groupingBy(delivery -> router.nodeFor(delivery.getChannelRef()),
+                        LinkedHashMap::new, Collectors.toList()));
+        return Mono.whenDelayError(byNode.entrySet().stream()
+                .flatMap(entry -> chunks(entry.getValue())
+                        .map(batch -> postBatch(entry.getKey(), batch).flatMap(DirectAdapter::failIfDiscarded)))
+                .toList());
+    }
+
+    /**
+     * Sends the stream as deliver_batch calls. Every channel is hashed to a lane and each lane sends
+     * its batches in order, so a channel's messages keep their order while lanes run in parallel; the
+     * sender's discarded list becomes the per message result.
+     */
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return deliveries
+                .groupBy(delivery -> Math.floorMod(Objects.hashCode(delivery.getChannelRef()), STREAM_LANES))
+                .flatMap(lane -> lane
+                        .bufferTimeout(DeliverBatchDispatcher.MAX_BATCH_SIZE, STREAM_BATCH_WAIT, true)
+                        .concatMap(this::sendStreamBatch), STREAM_LANES);
+    }
+
+    private Flux<DeliveryResult> sendStreamBatch(List<Delivery> batch) {
+        // the node of a channel may change between batches, but never inside one
+        Map<ChannelSenderRouter.Node, List<Delivery>> byNode = batch.stream()
+                .collect(Collectors.groupingBy(delivery -> router.nodeFor(delivery.getChannelRef()),
+                        LinkedHashMap::new, Collectors.toList()));
+        return Flux.fromIterable(byNode.entrySet())
+                .concatMap(entry -> sendStreamBatch(entry.getKey(), entry.getValue()));
+    }
+
+    private Flux<DeliveryResult> sendStreamBatch(ChannelSenderRouter.Node target, List<Delivery> batch) {
+        return postBatch(target, batch)
+                .flatMapIterable(results -> results)
+                .onErrorResume(error -> Flux.fromIterable(batch).map(delivery -> DeliveryResult.failed(delivery, error)));
+    }
+
+    private Mono<List<DeliveryResult>> postBatch(ChannelSenderRouter.Node target, List<Delivery> batch) {
+        DTODeliverBatch request = new DTODeliverBatch(batch.stream()
+                .map(delivery -> mapperDTO(delivery.getMessage()))
+                .toList());
+        return router.call(target, node -> payloadWriter.post(node, "/deliver_batch", request,
+                        response -> response.bodyToMono(DTODeliverBatchResponse.class)))
+                .defaultIfEmpty(new DTODeliverBatchResponse())
+                .map(response -> results(batch, response));
+    }
+
+    private static Mono<Void> failIfDiscarded(List<DeliveryResult> results) {
+        List<Throwable> errors = results.stream()
+                .filter(result -> !result.isDelivered())
+                .map(DeliveryResult::getError)
+                .toList();
+        if (errors.isEmpty()) {
+            return Mono.empty();
+        }
+        // the first discarded message is reported, the rest travel as suppressed exceptions
+        Throwable error = errors.getFirst();
+        errors.subList(1, errors.size()).forEach(error::addSuppressed);
+        return Mono.error(error);
+    }
+
+    private static Stream<List<Delivery>> chunks(List<Delivery> deliveries) {
+        int size = DeliverBatchDispatcher.MAX_BATCH_SIZE;
+        return IntStream.range(0, (deliveries.size() + size - 1) / size)
+                .mapToObj(chunk -> deliveries.subList(chunk * size, Math.min((chunk + 1) * size, deliveries.size())));
+    }
+
+    private static List<DeliveryResult> results(List<Delivery> batch, DTODeliverBatchResponse response) {
+        Set<String> discarded = response.getDiscarded() == null ? Set.of() : response.getDiscarded().stream()
+                .map(DTODeliverBatchResponse.Discarded::getMessageId)
+                .collect(Collectors.toSet());
+        return batch.stream()
+                .map(delivery -> {
+                    String messageId = delivery.getMessage().getMessageId();
+                    return discarded.contains(messageId)
+                            ? DeliveryResult.failed(delivery, new DiscardedMessageException(messageId))
+                            : DeliveryResult.delivered(delivery);
+                })
+                .toList();
+    }
+
+    /**
+     * Maps and encodes a delivery, alone and as a batch, without calling the channel sender.
+     */
+    public void warmUp(Delivery delivery) {
+        DTODeliverMessage message = mapperDTO(delivery.getMessage());
+        payloadWriter.encode(message);
+        payloadWriter.encode(new DTODeliverBatch(List.of(message)));
     }
 
     private static DTODeliverMessage mapperDTO(DeliverMessage deliverMessage) {
@@ -0,0 +1,117 @@
+package co.com.bancolombia.consumer.batch;
+
+import co.com.bancolombia.consumer.codec.DeliveryPayloadWriter;
+import co.com.bancolombia.consumer.models.DTODeliverBatch;
+import co.com.bancolombia.consumer.models.DTODeliverBatchResponse;
+import co.com.bancolombia.consumer.models.DTODeliverMessage;
+import co.com.bancolombia.consumer.routing.ChannelSenderRouter;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Gathers concurrent deliveries into size or time bounded batches and posts them to the
+ * channel sender deliver_batch endpoint, completing each caller with its own outcome. Batches are
+ * formed per channel sender node, so a batch never mixes channels owned by different nodes. The queue
+ * in front of the batches is bounded, deliveries arriving while it is full fail fast with a
+ * {@link GatewayOverloadedException}.
+ */
+@Log
+@Component
+@ConditionalOnProperty(value = "adapter.restconsumer.batch.enabled", havingValue = "true")
+public class DeliverBatchDispatcher implements DisposableBean {
+    // channel sender only processes the first 10 messages of each batch
+    public static final int MAX_BATCH_SIZE = 10;
+    private final ChannelSenderRouter router;
+    private final DeliveryPayloadWriter payloadWriter;
+    private final Sinks.Many<PendingDelivery> queue;
+    private final Disposable pipeline;
+
+    public DeliverBatchDispatcher(ChannelSenderRouter router,
+                                  DeliveryPayloadWriter payloadWriter,
+                                  @Value("${adapter.restconsumer.batch.max-size:10}") int maxSize,
+                                  @Value("${adapter.restconsumer.batch.max-wait:20ms}") Duration maxWait,
+                                  @Value("${adapter.restconsumer.batch.concurrency:16}") int concurrency,
+                                  @Value("${adapter.restconsumer.batch.queue-capacity:10000}") int queueCapacity) {
+        this.router = router;
+        this.payloadWriter = payloadWriter;
+        this.queue = Sinks.many().unicast().onBackpressureBuffer(Queues.<PendingDelivery>get(queueCapacity).get());
+        this.pipeline = queue.asFlux()
+                .groupBy(pending -> router.nodeFor(pending.message().getChannelRef()))
+                .flatMap(byNode -> byNode
+                        // batches are only formed on demand, so a slow sender leaves the deliveries in the bounded queue
+                        .bufferTimeout(Math.min(maxSize, MAX_BATCH_SIZE), maxWait, true)
+                        .flatMap(batch -> send(byNode.key(), batch), concurrency), Integer.MAX_VALUE)
+                .subscribe();
+    }
+
+    public Mono<Void> deliver(DTODeliverMessage message) {
+        return Mono.defer(() -> {
+            Sinks.Empty<Void> result = Sinks.empty();
+            PendingDelivery pending = new PendingDelivery(message, result);
+            Sinks.EmitResult emitted;
+            // concurrent callers only contend for the emission, the offer itself never waits
+            while ((emitted = queue.tryEmitNext(pending)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                Thread.onSpinWait();
+            }
+            if (emitted == Sinks.EmitResult.FAIL_OVERFLOW) {
+                return Mono.error(new GatewayOverloadedException("Delivery batch queue is full"));
+            }
+            if (emitted.isFailure()) {
+                return Mono.error(new GatewayOverloadedException("Delivery batch queue is closed"));
+            }
+            return result.asMono();
+        });
+    }
+
+    private Mono<Void> send(ChannelSenderRouter.Node node, List<PendingDelivery> batch) {
+        DTODeliverBatch request = new DTODeliverBatch(batch.stream().map(PendingDelivery::message).toList());
+        return router.call(node, client -> payloadWriter.post(client, "/deliver_batch", request,
+                        response -> response.bodyToMono(DTODeliverBatchResponse.class)))
+                .defaultIfEmpty(new DTODeliverBatchResponse())
+                .doOnNext(response -> complete(batch, response))
+                .doOnError(error -> batch.forEach(pending -> pending.result().tryEmitError(error)))
+                .onErrorResume(error -> {
+                    log.warning(() -> "Batch delivery of " + batch.size() + " messages failed: " + error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static void complete(List<PendingDelivery> batch, DTODeliverBatchResponse response) {
+        Set<String> discarded = response.getDiscarded() == null ? Set.of() : response.getDiscarded().stream()
+                .map(DTODeliverBatchResponse.Discarded::getMessageId)
+                .collect(Collectors.toSet());
+        batch.forEach(pending -> {
+            String messageId = pending.message().getMessageId();
+            if (discarded.contains(messageId)) {
+                pending.result().tryEmitError(new DiscardedMessageException(messageId));
+            } else {
+                pending.result().tryEmitEmpty();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        // completing the queue flushes the last partial batch before the pipeline terminates
+        if (queue.tryEmitComplete().isFailure()) {
+            pipeline.dispose();
+        }
+    }
+
+    private record PendingDelivery(DTODeliverMessage message, Sinks.Empty<Void> result) {
+    }
+}
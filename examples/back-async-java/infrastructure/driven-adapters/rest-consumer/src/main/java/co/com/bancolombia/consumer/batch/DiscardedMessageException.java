@@ -0,0 +1,13 @@
+package co.com.bancolombia.consumer.batch;
+
+import lombok.Getter;
+
+@Getter
+public class DiscardedMessageException extends RuntimeException {
+    private final String messageId;
+
+    public DiscardedMessageException(String messageId) {
+        super("Message discarded by channel sender: " + messageId);
+        this.messageId = messageId;
+    }
+}
@@ -0,0 +1,61 @@
+package co.com.bancolombia.consumer.codec;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.function.Function;
+
+/**
+ * Posts delivery requests to the channel sender in the configured payload format. With CBOR the
+ * body is encoded here and sent as raw bytes; if the sender answers 415 it is assumed not to
+ * support CBOR and every later request goes back to JSON.
+ */
+@Log
+@Component
+public class DeliveryPayloadWriter {
+    private final PayloadFormat format;
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private volatile boolean cborAccepted = true;
+
+    public DeliveryPayloadWriter(@Value("${adapter.restconsumer.payload-format:JSON}") PayloadFormat format) {
+        this.format = format;
+    }
+
+    public <T> Mono<T> post(WebClient client, String uri, Object body,
+                            Function<WebClient.ResponseSpec, Mono<T>> response) {
+        if (format != PayloadFormat.CBOR || !cborAccepted) {
+            return response.apply(client.post().uri(uri).bodyValue(body).retrieve());
+        }
+        return Mono.defer(() -> response.apply(client.post().uri(uri)
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .bodyValue(cborMapper.writeValueAsBytes(body))
+                        .retrieve()))
+                .onErrorResume(WebClientResponseException.UnsupportedMediaType.class, error -> {
+                    cborAccepted = false;
+                    log.warning("Channel sender rejected CBOR payloads, falling back to JSON");
+                    return response.apply(client.post().uri(uri).bodyValue(body).retrieve());
+                });
+    }
+
+    /**
+     * Encodes a body as it would be sent, without sending it. Only used to warm up the serializers;
+     * JSON bodies are written by the WebClient codecs when posted.
+     */
+    public byte[] encode(Object body) {
+        if (getEffectiveFormat() == PayloadFormat.CBOR) {
+            return cborMapper.writeValueAsBytes(body);
+        }
+        return JsonMapper.shared().writeValueAsBytes(body);
+    }
+
+    public PayloadFormat getEffectiveFormat() {
+        return format == PayloadFormat.CBOR && cborAccepted ? PayloadFormat.CBOR : PayloadFormat.JSON;
+    }
+}
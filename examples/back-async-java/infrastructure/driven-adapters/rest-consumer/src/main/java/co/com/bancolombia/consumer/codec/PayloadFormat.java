@@ -0,0 +1,6 @@
+package co.com.bancolombia.consumer.codec;
+
+public enum PayloadFormat {
+    JSON,
+    CBOR
+}
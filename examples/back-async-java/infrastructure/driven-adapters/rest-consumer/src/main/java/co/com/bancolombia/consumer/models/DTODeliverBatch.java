@@ -0,0 +1,12 @@
+package co.com.bancolombia.consumer.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class DTODeliverBatch {
+    private List<DTODeliverMessage> messages;
+}
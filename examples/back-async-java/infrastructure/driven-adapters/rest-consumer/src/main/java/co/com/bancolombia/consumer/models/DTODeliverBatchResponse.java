@@ -0,0 +1,26 @@
+package co.com.bancolombia.consumer.models;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class DTODeliverBatchResponse {
+    private String result;
+    private Integer acceptedMessages;
+    private Integer discardedMessages;
+    private List<Discarded> discarded = List.of();
+
+    @Data
+    @NoArgsConstructor
+    @JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+    public static class Discarded {
+        String channelRef;
+        String messageId;
+    }
+}
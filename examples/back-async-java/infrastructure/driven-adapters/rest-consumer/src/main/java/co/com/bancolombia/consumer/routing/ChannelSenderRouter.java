@@ -0,0 +1,210 @@
+package co.com.bancolombia.consumer.routing;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Spreads the calls to the channel sender over several nodes. Each channelRef is pinned to a node
+ * by a consistent hash ring, so all the deliveries of a channel reach the same node and only the
+ * channels of a node that leaves the ring move elsewhere; credentials, which have no channel yet,
+ * go to the node with the fewest calls in flight. Nodes are ejected after consecutive failures,
+ * seen either on live calls or on the periodic health probe, and re-admitted on the first success.
+ * With no nodes configured every call goes to the default client.
+ */
+@Log
+@Component
+public class ChannelSenderRouter implements DisposableBean {
+    private final List<Node> nodes;
+    private final NavigableMap<Long, Node> ring = new TreeMap<>();
+    private final int failureThreshold;
+    private final Disposable healthCheck;
+
+    public ChannelSenderRouter(WebClient client,
+                               @Value("${adapter.restconsumer.routing.nodes:}") List<String> urls,
+                               @Value("${adapter.restconsumer.routing.virtual-nodes:128}") int virtualNodes,
+                               @Value("${adapter.restconsumer.routing.failure-threshold:3}") int failureThreshold,
+                               @Value("${adapter.restconsumer.routing.health-path:/health}") String healthPath,
+                               @Value("${adapter.restconsumer.routing.health-interval:5s}") Duration healthInterval,
+                               @Value("${adapter.restconsumer.routing.health-timeout:1s}") Duration healthTimeout) {
+        List<String> baseUrls = urls.stream().map(String::trim).filter(url -> !url.isEmpty()).distinct().toList();
+        this.failureThreshold = failureThreshold;
+        if (baseUrls.isEmpty()) {
+            this.nodes = List.of(new Node("default", client, null));
+        } else {
+            this.nodes = baseUrls.stream()
+                    .map(url -> new Node(url, client.mutate().baseUrl(url).build(), URI.create(url).resolve(healthPath)))
+                    .toList();
+        }
+        for (Node node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(node.getUrl() + "#" + i), node);
+            }
+        }
+        this.healthCheck = nodes.size() > 1 && !healthInterval.isZero()
+                ? Flux.interval(healthInterval, healthInterval)
+                .concatMap(tick -> Flux.fromIterable(nodes).flatMap(node -> probe(node, healthTimeout)).then())
+                .subscribe()
+                : null;
+    }
+
+    public static ChannelSenderRouter single(WebClient client) {
+        return new ChannelSenderRouter(client, List.of(), 1, Integer.MAX_VALUE, "/health", Duration.ZERO,
+                Duration.ZERO);
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public Node nodeFor(String channelRef) {
+        if (nodes.size() == 1) {
+            return nodes.getFirst();
+        }
+        long hash = hash(channelRef == null ? "" : channelRef);
+        Node node = firstHealthy(ring.tailMap(hash, true));
+        if (node == null) {
+            node = firstHealthy(ring.headMap(hash, false));
+        }
+        if (node != null) {
+            return node;
+        }
+        // with every node ejected the owner is still tried, a failing call beats no call at all
+        Map.Entry<Long, Node> owner = ring.ceilingEntry(hash);
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    public Node leastLoaded() {
+        if (nodes.size() == 1) {
+            return nodes.getFirst();
+        }
+        Comparator<Node> byLoad = Comparator.comparingInt(Node::getInFlight);
+        return nodes.stream().filter(Node::isHealthy).min(byLoad)
+                .orElseGet(() -> nodes.stream().min(byLoad).orElseThrow());
+    }
+
+    public <T> Mono<T> call(Node node, Function<WebClient, Mono<T>> request) {
+        return Mono.defer(() -> {
+                    node.inFlight.incrementAndGet();
+                    return request.apply(node.client);
+                })
+                .doOnSuccess(ignored -> succeeded(node))
+                .doOnError(error -> {
+                    if (isNodeFailure(error)) {
+                        failed(node, error);
+                    } else {
+                        succeeded(node);
+                    }
+                })
+                .doFinally(signal -> node.inFlight.decrementAndGet());
+    }
+
+    private Mono<Void> probe(Node node, Duration timeout) {
+        return node.client.get().uri(node.healthUri)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(timeout)
+                .doOnSuccess(ignored -> succeeded(node))
+                .doOnError(error -> failed(node, error))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private void succeeded(Node node) {
+        node.failures.set(0);
+        if (!node.healthy) {
+            node.healthy = true;
+            log.info(() -> "Channel sender node " + node.url + " is back in the ring");
+        }
+    }
+
+    private void failed(Node node, Throwable error) {
+        if (node.failures.incrementAndGet() >= failureThreshold && node.healthy) {
+            node.healthy = false;
+            log.warning(() -> "Channel sender node " + node.url + " ejected: " + error.getMessage());
+        }
+    }
+
+    // client errors are the request's fault, only transport errors and 5xx count against the node
+    private static boolean isNodeFailure(Throwable error) {
+        return error instanceof WebClientRequestException
+                || error instanceof TimeoutException
+                || error instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+
+    private static Node firstHealthy(Map<Long, Node> segment) {
+        for (Node node : segment.values()) {
+            if (node.healthy) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        // FNV alone clusters keys that share a prefix, the finalizer spreads them over the ring
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    @Override
+    public void destroy() {
+        if (healthCheck != null) {
+            healthCheck.dispose();
+        }
+    }
+
+    public static final class Node {
+        @Getter
+        private final String url;
+        private final WebClient client;
+        private final URI healthUri;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        @Getter
+        private volatile boolean healthy = true;
+
+        private Node(String url, WebClient client, URI healthUri) {
+            this.url = url;
+            this.client = client;
+            this.healthUri = healthUri;
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package co.com.bancolombia.consumer;
+
+import co.com.bancolombia.consumer.batch.DeliverBatchDispatcher;
+import co.com.bancolombia.consumer.batch.DiscardedMessageException;
+import co.com.bancolombia.consumer.codec.DeliveryPayloadWriter;
+import co.com.bancolombia.consumer.codec.PayloadFormat;
+import co.com.bancolombia.consumer.routing.ChannelSenderRouter;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirectAdapterStreamTest {
+
+    private MockWebServer server;
+    private DirectAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        WebClient client = WebClient.builder()
+                .baseUrl(server.url("/ext/channel").toString())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+        adapter = new DirectAdapter(client, new StaticListableBeanFactory().getBeanProvider(DeliverBatchDispatcher.class),
+                new DeliveryPayloadWriter(PayloadFormat.JSON), ChannelSenderRouter.single(client));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void shouldSendStreamAsBatchesAndReportEachDelivery() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setResponseCode(202)
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody("{\"result\":\"partial-success\",\"accepted_messages\":1,\"discarded_messages\":1," +
+                        "\"discarded\":[{\"channel_ref\":\"ch1\",\"message_id\":\"m2\"}]}"));
+
+        List<DeliveryResult> results = adapter.deliverMessages(Flux.just(delivery("ch1", "m1"), delivery("ch1", "m2")))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(results).extracting(result -> result.getDelivery().getMessage().getMessageId())
+                .containsExactly("m1", "m2");
+        assertThat(results.get(0).isDelivered()).isTrue();
+        assertThat(results.get(1).getError()).isInstanceOf(DiscardedMessageException.class);
+        assertThat(server.takeRequest().getBody().readUtf8())
+                .containsSubsequence("\"message_id\":\"m1\"", "\"message_id\":\"m2\"");
+    }
+
+    @Test
+    void shouldReportEveryDeliveryOfAFailedBatch() {
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        List<DeliveryResult> results = adapter.deliverMessages(Flux.just(delivery("ch1", "m1"), delivery("ch1", "m2")))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(results).hasSize(2).noneMatch(DeliveryResult::isDelivered);
+    }
+
+    @Test
+    void shouldFailBatchWithTheMessagesDiscardedBySender() {
+        server.enqueue(new MockResponse()
+                .setResponseCode(202)
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody("{\"result\":\"partial-success\",\"accepted_messages\":1,\"discarded_messages\":1," +
+                        "\"discarded\":[{\"channel_ref\":\"ch1\",\"message_id\":\"m2\"}]}"));
+
+        StepVerifier.create(adapter.deliverBatch(List.of(delivery("ch1", "m1"), delivery("ch1", "m2"))))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(DiscardedMessageException.class)
+                        .extracting("messageId").isEqualTo("m2"))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static Delivery delivery(String channelRef, String messageId) {
+        return Delivery.builder()
+                .channelRef(channelRef)
+                .userRef("user")
+                .message(DeliverMessage.builder()
+                        .channelRef(channelRef)
+                        .messageId(messageId)
+                        .eventName("businessEvent")
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package co.com.bancolombia.consumer.batch;
+
+import co.com.bancolombia.consumer.codec.DeliveryPayloadWriter;
+import co.com.bancolombia.consumer.codec.PayloadFormat;
+import co.com.bancolombia.consumer.models.DTODeliverMessage;
+import co.com.bancolombia.consumer.routing.ChannelSenderRouter;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeliverBatchDispatcherTest {
+
+    private MockWebServer server;
+    private DeliverBatchDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        WebClient client = WebClient.builder()
+                .baseUrl(server.url("/ext/channel").toString())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+        dispatcher = new DeliverBatchDispatcher(ChannelSenderRouter.single(client), new DeliveryPayloadWriter(PayloadFormat.JSON), 2,
+                Duration.ofSeconds(5), 1, 16);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        dispatcher.destroy();
+        server.shutdown();
+    }
+
+    @Test
+    void shouldSendConcurrentMessagesInOneBatchAndMatchResults() throws InterruptedException {
+        server.enqueue(new MockResponse()
+                .setResponseCode(202)
+                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody("{\"result\":\"partial-success\",\"accepted_messages\":1,\"discarded_messages\":1," +
+                        "\"discarded\":[{\"channel_ref\":\"ch2\",\"message_id\":\"m2\"}]}"));
+
+        Mono<Void> first = dispatcher.deliver(message("ch1", "m1"));
+        Mono<Void> second = dispatcher.deliver(message("ch2", "m2"));
+
+        StepVerifier.create(Mono.zipDelayError(first.materialize(), second.materialize()))
+                .assertNext(results -> {
+                    assertThat(results.getT1().isOnComplete()).isTrue();
+                    assertThat(results.getT2().getThrowable()).isInstanceOf(DiscardedMessageException.class);
+                })
+                .verifyComplete();
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getPath()).isEqualTo("/ext/channel/deliver_batch");
+        assertThat(request.getBody().readUtf8()).contains("\"message_id\":\"m1\"", "\"message_id\":\"m2\"");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailEveryMessageWhenBatchIsRejected() {
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        StepVerifier.create(Mono.when(dispatcher.deliver(message("ch1", "m1")),
+                        dispatcher.deliver(message("ch1", "m2"))))
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldRejectDeliveriesWhileTheQueueIsFull() {
+        // no response is enqueued, so the first batch stays in flight and the rest pile up
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            dispatcher.deliver(message("ch1", "m" + i)).subscribe(null, errors::add);
+        }
+
+        assertThat(errors).isNotEmpty().allMatch(GatewayOverloadedException.class::isInstance);
+    }
+
+    private static DTODeliverMessage message(String channelRef, String messageId) {
+        return DTODeliverMessage.builder()
+                .channelRef(channelRef)
+                .messageId(messageId)
+                .correlationId("c-" + messageId)
+                .eventName("businessEvent")
+                .build();
+    }
+}
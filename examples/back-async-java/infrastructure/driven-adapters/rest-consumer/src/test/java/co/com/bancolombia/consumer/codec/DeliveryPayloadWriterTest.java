@@ -0,0 +1,75 @@
+package co.com.bancolombia.consumer.codec;
+
+import co.com.bancolombia.consumer.models.DTODeliverMessage;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeliveryPayloadWriterTest {
+
+    private final DTODeliverMessage message = DTODeliverMessage.builder()
+            .channelRef("ch1")
+            .messageId("m1")
+            .eventName("businessEvent")
+            .build();
+    private MockWebServer server;
+    private WebClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        client = WebClient.builder()
+                .baseUrl(server.url("/ext/channel").toString())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void shouldPostCborBody() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(202));
+        DeliveryPayloadWriter writer = new DeliveryPayloadWriter(PayloadFormat.CBOR);
+
+        StepVerifier.create(writer.post(client, "/deliver_message", message, spec -> spec.toBodilessEntity()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getHeader(HttpHeaders.CONTENT_TYPE)).isEqualTo(MediaType.APPLICATION_CBOR_VALUE);
+        assertThat(CBORMapper.builder().build().readTree(request.getBody().readByteArray())
+                .get("message_id").asString()).isEqualTo("m1");
+    }
+
+    @Test
+    void shouldFallBackToJsonWhenCborIsNotSupported() throws InterruptedException {
+        server.enqueue(new MockResponse().setResponseCode(415));
+        server.enqueue(new MockResponse().setResponseCode(202));
+        DeliveryPayloadWriter writer = new DeliveryPayloadWriter(PayloadFormat.CBOR);
+
+        StepVerifier.create(writer.post(client, "/deliver_message", message, spec -> spec.toBodilessEntity()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        server.takeRequest();
+        assertThat(server.takeRequest().getHeader(HttpHeaders.CONTENT_TYPE))
+                .isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(writer.getEffectiveFormat()).isEqualTo(PayloadFormat.JSON);
+    }
+}
@@ -0,0 +1,93 @@
+package co.com.bancolombia.consumer.routing;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelSenderRouterTest {
+
+    private MockWebServer first;
+    private MockWebServer second;
+    private ChannelSenderRouter router;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        first = new MockWebServer();
+        second = new MockWebServer();
+        first.start();
+        second.start();
+        router = new ChannelSenderRouter(WebClient.create(),
+                List.of(first.url("/ext/channel").toString(), second.url("/ext/channel").toString()),
+                64, 2, "/health", Duration.ZERO, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        router.destroy();
+        first.shutdown();
+        second.shutdown();
+    }
+
+    @Test
+    void shouldPinEachChannelToOneNodeAndUseEveryNode() {
+        Set<ChannelSenderRouter.Node> used = IntStream.range(0, 200)
+                .mapToObj(i -> {
+                    ChannelSenderRouter.Node node = router.nodeFor("ch" + i);
+                    assertThat(router.nodeFor("ch" + i)).isSameAs(node);
+                    return node;
+                })
+                .collect(Collectors.toSet());
+
+        assertThat(used).containsExactlyInAnyOrderElementsOf(router.getNodes());
+    }
+
+    @Test
+    void shouldMoveChannelsOfAnEjectedNodeAndKeepTheRest() {
+        ChannelSenderRouter.Node owner = router.nodeFor("ch1");
+        ChannelSenderRouter.Node other = router.getNodes().stream().filter(node -> node != owner).findFirst()
+                .orElseThrow();
+        String otherChannel = IntStream.range(0, 200).mapToObj(i -> "ch" + i)
+                .filter(channel -> router.nodeFor(channel) == other)
+                .findFirst().orElseThrow();
+        MockWebServer ownerServer = owner.getUrl().equals(first.url("/ext/channel").toString()) ? first : second;
+        ownerServer.enqueue(new MockResponse().setResponseCode(503));
+        ownerServer.enqueue(new MockResponse().setResponseCode(503));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(router.call(owner, client -> client.post().uri("/deliver_message")
+                            .retrieve().toBodilessEntity()))
+                    .expectError()
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        assertThat(owner.isHealthy()).isFalse();
+        assertThat(router.nodeFor("ch1")).isSameAs(other);
+        assertThat(router.nodeFor(otherChannel)).isSameAs(other);
+    }
+
+    @Test
+    void shouldSendCredentialsToTheLeastLoadedNode() {
+        ChannelSenderRouter.Node busy = router.getNodes().getFirst();
+        Disposable pending = router.call(busy, client -> Mono.never()).subscribe();
+
+        assertThat(router.leastLoaded()).isSameAs(router.getNodes().getLast());
+
+        pending.dispose();
+        assertThat(busy.getInFlight()).isZero();
+    }
+}
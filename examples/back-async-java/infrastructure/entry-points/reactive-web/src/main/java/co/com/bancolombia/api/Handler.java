@@ -1,37 +1,88 @@
 package co.com.bancolombia.api;
 
+import co.com.bancolombia.api.dto.BusinessFlowAck;
+import co.com.bancolombia.api.dto.BusinessFlowRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.IdGenerator;
 import co.com.bancolombia.usecase.business.BusinessUseCase;
+import co.com.bancolombia.usecase.delivery.DeliveryRejectedException;
 
-import java.util.UUID;
+import java.time.Duration;
 
 @Component
 @RequiredArgsConstructor
 public class Handler {
+    private static final long DEFAULT_DELAY = 5000;
+    // flows scheduled at once per stream, the request body is only read as they complete
+    private static final int STREAM_CONCURRENCY = 64;
+
     private final BusinessUseCase useCase;
+    private final IdGenerator idGenerator;
 
     public Mono<ServerResponse> listenBusiness(ServerRequest serverRequest) {
 
-        return ServerResponse.accepted()
-                .body(
-                        useCase.asyncBusinessFlow(serverRequest.queryParam("delay").orElse("5000"),
-                                serverRequest.queryParam("channel_ref").orElse(""),
-                                serverRequest.queryParam("user_ref").toString(),
-                                serverRequest.queryParam("correlationId").orElse(UUID.randomUUID().toString())),
-                        String.class);
+        return useCase.asyncBusinessFlow(serverRequest.queryParam("delay").orElse("5000"),
+                        serverRequest.queryParam("channel_ref").orElse(""),
+                        serverRequest.queryParam("user_ref").orElse(null),
+                        serverRequest.queryParam("correlationId").orElseGet(idGenerator::newId))
+                .then(ServerResponse.accepted().build())
+                .onErrorResume(DeliveryRejectedException.class,
+                        error -> ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS).build());
+    }
+
+    public Mono<ServerResponse> listenBusinessStream(ServerRequest serverRequest) {
+        Flux<BusinessFlowAck> acks = serverRequest.bodyToFlux(String.class)
+                .filter(line -> !line.isBlank())
+                .flatMapSequential(this::scheduleLine, STREAM_CONCURRENCY);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(acks, BusinessFlowAck.class);
     }
 
+    // lines are decoded one by one, so a malformed line only invalidates its own flow
+    private Mono<BusinessFlowAck> scheduleLine(String line) {
+        return Mono.fromCallable(() -> JsonMapper.shared().readValue(line, BusinessFlowRequest.class))
+                .flatMap(this::scheduleFlow)
+                .onErrorResume(JacksonException.class, error -> Mono.just(
+                        new BusinessFlowAck(null, BusinessFlowAck.INVALID, "malformed flow request")));
+    }
+
+    private Mono<BusinessFlowAck> scheduleFlow(BusinessFlowRequest request) {
+        String correlationId = request.getCorrelationId() != null
+                ? request.getCorrelationId() : idGenerator.newId();
+        long delay = request.getDelay() != null ? request.getDelay() : DEFAULT_DELAY;
+        if (request.getChannelRef() == null || request.getChannelRef().isEmpty()) {
+            return Mono.just(new BusinessFlowAck(correlationId, BusinessFlowAck.INVALID, "channel_ref is required"));
+        }
+        if (delay < 0) {
+            return Mono.just(new BusinessFlowAck(correlationId, BusinessFlowAck.INVALID, "delay must not be negative"));
+        }
+        return useCase.scheduleBusinessFlow(Duration.ofMillis(delay), request.getChannelRef(), request.getUserRef(),
+                        correlationId)
+                .thenReturn(BusinessFlowAck.accepted(correlationId))
+                .onErrorResume(error -> Mono.just(
+                        new BusinessFlowAck(correlationId, BusinessFlowAck.REJECTED, error.getMessage())));
+    }
 
     public Mono<ServerResponse> listenGenerateCredentials(ServerRequest serverRequest) {
-        return useCase.generateCredentials(serverRequest.queryParam("user_ref").toString())
-                .flatMap(credentials -> responseHandler(credentials, HttpStatus.OK));
+        return useCase.generateCredentials(serverRequest.queryParam("user_ref").orElse(null))
+                .flatMap(credentials -> responseHandler(credentials, HttpStatus.OK))
+                .onErrorResume(GatewayOverloadedException.class,
+                        error -> ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, "1")
+                                .build());
 
     }
 
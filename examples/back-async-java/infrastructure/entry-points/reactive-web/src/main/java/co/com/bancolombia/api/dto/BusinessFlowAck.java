@@ -0,0 +1,25 @@
+package co.com.bancolombia.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BusinessFlowAck {
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String REJECTED = "REJECTED";
+    public static final String INVALID = "INVALID";
+
+    private String correlationId;
+    private String status;
+    private String detail;
+
+    public static BusinessFlowAck accepted(String correlationId) {
+        return new BusinessFlowAck(correlationId, ACCEPTED, null);
+    }
+}
@@ -0,0 +1,16 @@
+package co.com.bancolombia.api.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.annotation.JsonNaming;
+
+@Data
+@NoArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class BusinessFlowRequest {
+    private Long delay;
+    private String channelRef;
+    private String userRef;
+    private String correlationId;
+}
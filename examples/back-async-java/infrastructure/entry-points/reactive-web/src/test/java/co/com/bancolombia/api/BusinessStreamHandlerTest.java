@@ -0,0 +1,79 @@
+package co.com.bancolombia.api;
+
+import co.com.bancolombia.api.dto.BusinessFlowAck;
+import co.com.bancolombia.usecase.business.BusinessUseCase;
+import co.com.bancolombia.usecase.delivery.DeliveryRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BusinessStreamHandlerTest {
+
+    private final BusinessUseCase useCase = mock(BusinessUseCase.class);
+    private final WebTestClient client = WebTestClient
+            .bindToRouterFunction(new RouterRest().routerFunction(new Handler(useCase, () -> "generated")))
+            .build();
+
+    @Test
+    void shouldAcknowledgeEachFlowInOrder() {
+        when(useCase.scheduleBusinessFlow(eq(Duration.ofMillis(100)), eq("ch1"), any(), eq("c1")))
+                .thenReturn(Mono.empty());
+        when(useCase.scheduleBusinessFlow(any(), eq("ch2"), any(), eq("c2")))
+                .thenReturn(Mono.error(new DeliveryRejectedException("full")));
+        String body = """
+                {"delay":100,"channel_ref":"ch1","user_ref":"u1","correlation_id":"c1"}
+                {"channel_ref":"ch2","user_ref":"u2","correlation_id":"c2"}
+                {"user_ref":"u3","correlation_id":"c3"}
+                """;
+
+        List<BusinessFlowAck> acks = client.post()
+                .uri("/api/business/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BusinessFlowAck.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(acks).extracting(BusinessFlowAck::getCorrelationId).containsExactly("c1", "c2", "c3");
+        assertThat(acks).extracting(BusinessFlowAck::getStatus)
+                .containsExactly(BusinessFlowAck.ACCEPTED, BusinessFlowAck.REJECTED, BusinessFlowAck.INVALID);
+    }
+
+    @Test
+    void shouldInvalidateOnlyTheMalformedLine() {
+        when(useCase.scheduleBusinessFlow(any(), any(), any(), any())).thenReturn(Mono.empty());
+        String body = """
+                {"channel_ref":"ch1","user_ref":"u1","correlation_id":"c1"}
+                {"channel_ref":"ch2",
+                {"channel_ref":"ch3","user_ref":"u3","correlation_id":"c3"}
+                """;
+
+        List<BusinessFlowAck> acks = client.post()
+                .uri("/api/business/stream")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(BusinessFlowAck.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(acks).extracting(BusinessFlowAck::getStatus)
+                .containsExactly(BusinessFlowAck.ACCEPTED, BusinessFlowAck.INVALID, BusinessFlowAck.ACCEPTED);
+        assertThat(acks).extracting(BusinessFlowAck::getCorrelationId).containsExactly("c1", null, "c3");
+    }
+}
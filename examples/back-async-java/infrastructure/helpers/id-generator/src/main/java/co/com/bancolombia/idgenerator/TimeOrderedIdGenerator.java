@@ -0,0 +1,61 @@
+package co.com.bancolombia.idgenerator;
+
+import co.com.bancolombia.model.async.gateways.IdGenerator;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates UUIDv7 ids: 48 bits of epoch millis, a 12 bit sequence and 62 random bits. Every thread
+ * keeps its own sequence and draws from {@link ThreadLocalRandom}, so unlike {@link UUID#randomUUID()}
+ * there is no shared SecureRandom to lock; ids of one thread are strictly increasing and ids of
+ * different threads are ordered by millisecond.
+ */
+@Component
+public class TimeOrderedIdGenerator implements IdGenerator {
+    private static final int MAX_SEQUENCE = 0xFFF;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_BITS = 0x3FFFFFFFFFFFFFFFL;
+
+    private final LongSupplier clock;
+    private final ThreadLocal<Sequence> sequences = ThreadLocal.withInitial(Sequence::new);
+
+    public TimeOrderedIdGenerator() {
+        this(System::currentTimeMillis);
+    }
+
+    TimeOrderedIdGenerator(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String newId() {
+        return nextUuid().toString();
+    }
+
+    public UUID nextUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Sequence sequence = sequences.get();
+        long now = clock.getAsLong();
+        if (now > sequence.millis) {
+            sequence.millis = now;
+            // a random start in the lower half leaves room for the ids of the same millisecond
+            sequence.counter = random.nextInt(MAX_SEQUENCE / 2);
+        } else if (++sequence.counter > MAX_SEQUENCE) {
+            // sequence exhausted, borrow the next millisecond rather than break the order
+            sequence.millis++;
+            sequence.counter = 0;
+        }
+        long mostSignificant = sequence.millis << 16 | VERSION | sequence.counter;
+        long leastSignificant = random.nextLong() & RANDOM_BITS | VARIANT;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    private static final class Sequence {
+        private long millis = -1;
+        private int counter;
+    }
+}
@@ -0,0 +1,40 @@
+package co.com.bancolombia.idgenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedIdGeneratorTest {
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get);
+
+    @Test
+    void shouldGenerateVersion7UuidsWithTimestamp() {
+        UUID id = generator.nextUuid();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(clock.get());
+    }
+
+    @Test
+    void shouldKeepIdsIncreasingWithinAndAcrossMilliseconds() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add(generator.nextUuid());
+        }
+        clock.incrementAndGet();
+        ids.add(generator.nextUuid());
+
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(Long.compareUnsigned(ids.get(i).getMostSignificantBits(),
+                    ids.get(i - 1).getMostSignificantBits())).isPositive();
+        }
+    }
+}
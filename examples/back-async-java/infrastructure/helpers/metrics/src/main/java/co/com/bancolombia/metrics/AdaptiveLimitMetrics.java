@@ -0,0 +1,36 @@
+package co.com.bancolombia.metrics;
+
+import co.com.bancolombia.usecase.gateway.AdaptiveLimitGateway;
+import co.com.bancolombia.usecase.gateway.AdaptiveLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exposes the current concurrency limit of every adaptive limiter next to the calls it holds in
+ * flight and the ones it turned away, tagged by operation.
+ */
+@RequiredArgsConstructor
+public class AdaptiveLimitMetrics implements MeterBinder {
+    private final AdaptiveLimitGateway gateway;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (AdaptiveLimiter limiter : gateway.getLimiters()) {
+            Gauge.builder("adf.limit.concurrency", limiter, AdaptiveLimiter::getLimit)
+                    .description("Calls allowed in flight by the adaptive limiter")
+                    .tag("operation", limiter.getName())
+                    .register(registry);
+            Gauge.builder("adf.limit.in.flight", limiter, AdaptiveLimiter::getInFlight)
+                    .description("Calls in flight through the adaptive limiter")
+                    .tag("operation", limiter.getName())
+                    .register(registry);
+            FunctionCounter.builder("adf.limit.rejected", limiter, AdaptiveLimiter::getRejected)
+                    .description("Calls rejected by the adaptive limiter")
+                    .tag("operation", limiter.getName())
+                    .register(registry);
+        }
+    }
+}
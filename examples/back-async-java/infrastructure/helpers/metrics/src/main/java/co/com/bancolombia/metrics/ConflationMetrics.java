@@ -0,0 +1,30 @@
+package co.com.bancolombia.metrics;
+
+import co.com.bancolombia.usecase.gateway.ConflatingGateway;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exposes the deliveries entering the conflation stage and the calls that left it; their ratio is
+ * the share of updates that were superseded before being sent.
+ */
+@RequiredArgsConstructor
+public class ConflationMetrics implements MeterBinder {
+    private final ConflatingGateway gateway;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("adf.conflation.received", gateway, ConflatingGateway::getReceivedDeliveries)
+                .description("Deliveries received for conflation")
+                .register(registry);
+        FunctionCounter.builder("adf.conflation.sent", gateway, ConflatingGateway::getSentDeliveries)
+                .description("Conflated deliveries sent to the channel sender")
+                .register(registry);
+        Gauge.builder("adf.conflation.pending", gateway, ConflatingGateway::getPendingChannels)
+                .description("Channel and event keys with a delivery pending or in flight")
+                .register(registry);
+    }
+}
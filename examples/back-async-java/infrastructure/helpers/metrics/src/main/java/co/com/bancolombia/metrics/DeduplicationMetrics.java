@@ -0,0 +1,31 @@
+package co.com.bancolombia.metrics;
+
+import co.com.bancolombia.usecase.gateway.DeduplicatingGateway;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exposes the deliveries checked for duplicates and the ones dropped, tagged by whether the exact
+ * recent set or the probabilistic filter matched. The hit rate is the ratio of both counters.
+ */
+@RequiredArgsConstructor
+public class DeduplicationMetrics implements MeterBinder {
+    private final DeduplicatingGateway gateway;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("adf.dedup.checked", gateway, DeduplicatingGateway::getCheckedDeliveries)
+                .description("Deliveries checked for duplicates")
+                .register(registry);
+        FunctionCounter.builder("adf.dedup.duplicates", gateway, DeduplicatingGateway::getExactDuplicates)
+                .description("Duplicate deliveries dropped")
+                .tag("match", "exact")
+                .register(registry);
+        FunctionCounter.builder("adf.dedup.duplicates", gateway, DeduplicatingGateway::getFilterDuplicates)
+                .description("Duplicate deliveries dropped")
+                .tag("match", "filter")
+                .register(registry);
+    }
+}
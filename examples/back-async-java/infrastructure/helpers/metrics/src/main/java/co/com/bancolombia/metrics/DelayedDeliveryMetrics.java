@@ -0,0 +1,36 @@
+package co.com.bancolombia.metrics;
+
+import co.com.bancolombia.usecase.delivery.DelayedDeliveryScheduler;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Exposes the delayed delivery backlog. Values are read from the scheduler on scrape, so nothing
+ * is recorded on the scheduling path.
+ */
+@RequiredArgsConstructor
+public class DelayedDeliveryMetrics implements MeterBinder {
+    private final DelayedDeliveryScheduler scheduler;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("adf.delivery.pending", scheduler, DelayedDeliveryScheduler::getPendingDeliveries)
+                .description("Delayed deliveries waiting for their due time")
+                .register(registry);
+        Gauge.builder("adf.delivery.in.flight", scheduler, DelayedDeliveryScheduler::getInFlightDeliveries)
+                .description("Due deliveries being sent through the gateway")
+                .register(registry);
+        FunctionCounter.builder("adf.delivery.rejected", scheduler, DelayedDeliveryScheduler::getRejectedDeliveries)
+                .description("Deliveries rejected because the backlog was full")
+                .register(registry);
+        FunctionCounter.builder("adf.delivery.dropped", scheduler, DelayedDeliveryScheduler::getDroppedDeliveries)
+                .description("Pending deliveries dropped to make room for newer ones")
+                .register(registry);
+        FunctionCounter.builder("adf.delivery.retried", scheduler, DelayedDeliveryScheduler::getRetriedDeliveries)
+                .description("Deliveries shed by the gateway and scheduled again")
+                .register(registry);
+    }
+}
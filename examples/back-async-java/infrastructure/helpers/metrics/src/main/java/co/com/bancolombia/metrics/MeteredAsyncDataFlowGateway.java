@@ -0,0 +1,130 @@
+package co.com.bancolombia.metrics;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records latency and outcome of every gateway call, tagged by operation and reply mode, plus the
+ * number of calls in flight and the size of the batches handed to the adapter. A delivery stream is
+ * timed as one call and its results are counted by outcome.
+ */
+public class MeteredAsyncDataFlowGateway implements AsyncDataFlowGateway {
+    public static final String REQUESTS = "adf.gateway.requests";
+    public static final String IN_FLIGHT = "adf.gateway.in.flight";
+    public static final String BATCH_SIZE = "adf.gateway.batch.size";
+    public static final String STREAM_RESULTS = "adf.gateway.stream.results";
+
+    private final AsyncDataFlowGateway delegate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<SignalType, Timer> credentialsTimers;
+    private final Map<SignalType, Timer> deliverTimers;
+    private final Map<SignalType, Timer> batchTimers;
+    private final Map<SignalType, Timer> streamTimers;
+    private final Counter streamDelivered;
+    private final Counter streamFailed;
+    private final DistributionSummary batchSize;
+
+    public MeteredAsyncDataFlowGateway(AsyncDataFlowGateway delegate, MeterRegistry registry, String replyMode) {
+        this.delegate = delegate;
+        this.credentialsTimers = timers(registry, "generate_credentials", replyMode);
+        this.deliverTimers = timers(registry, "deliver_message", replyMode);
+        this.batchTimers = timers(registry, "deliver_batch", replyMode);
+        this.streamTimers = timers(registry, "deliver_stream", replyMode);
+        this.streamDelivered = streamCounter(registry, replyMode, "success");
+        this.streamFailed = streamCounter(registry, replyMode, "error");
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE)
+                .description("Deliveries per batch sent to the channel sender")
+                .baseUnit("deliveries")
+                .tag("reply.mode", replyMode)
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get)
+                .description("Gateway calls waiting for a response")
+                .tag("reply.mode", replyMode)
+                .register(registry);
+    }
+
+    @Override
+    public Mono<Credentials> generateCredentials(String userIdentifier) {
+        return observe(credentialsTimers, delegate.generateCredentials(userIdentifier));
+    }
+
+    @Override
+    public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+        return observe(deliverTimers, delegate.deliverMessage(channelRef, userRef, message));
+    }
+
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        return observe(batchTimers, delegate.deliverBatch(deliveries))
+                .doOnSubscribe(subscription -> batchSize.record(deliveries.size()));
+    }
+
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            return delegate.deliverMessages(deliveries)
+                    .doOnNext(result -> (result.isDelivered() ? streamDelivered : streamFailed).increment())
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        streamTimers.get(signal).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    });
+        });
+    }
+
+    private <T> Mono<T> observe(Map<SignalType, Timer> timers, Mono<T> source) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            inFlight.incrementAndGet();
+            return source.doFinally(signal -> {
+                inFlight.decrementAndGet();
+                timers.get(signal).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            });
+        });
+    }
+
+    private static Map<SignalType, Timer> timers(MeterRegistry registry, String operation, String replyMode) {
+        Map<SignalType, Timer> timers = new EnumMap<>(SignalType.class);
+        timers.put(SignalType.ON_COMPLETE, timer(registry, operation, replyMode, "success"));
+        timers.put(SignalType.ON_ERROR, timer(registry, operation, replyMode, "error"));
+        timers.put(SignalType.CANCEL, timer(registry, operation, replyMode, "cancelled"));
+        return timers;
+    }
+
+    private static Counter streamCounter(MeterRegistry registry, String replyMode, String outcome) {
+        return Counter.builder(STREAM_RESULTS)
+                .description("Deliveries sent through delivery streams")
+                .tag("reply.mode", replyMode)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation, String replyMode, String outcome) {
+        return Timer.builder(REQUESTS)
+                .description("Async dataflow gateway calls")
+                .tag("operation", operation)
+                .tag("reply.mode", replyMode)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
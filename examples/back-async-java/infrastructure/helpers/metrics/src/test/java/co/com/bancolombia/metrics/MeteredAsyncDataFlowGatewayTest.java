@@ -0,0 +1,65 @@
+package co.com.bancolombia.metrics;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MeteredAsyncDataFlowGatewayTest {
+
+    private final AsyncDataFlowGateway delegate = mock(AsyncDataFlowGateway.class);
+    private SimpleMeterRegistry registry;
+    private MeteredAsyncDataFlowGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        gateway = new MeteredAsyncDataFlowGateway(delegate, registry, "DIRECT");
+    }
+
+    @Test
+    void shouldRecordOutcomePerOperation() {
+        when(delegate.deliverMessage(any(), any(), any()))
+                .thenReturn(Mono.empty())
+                .thenReturn(Mono.error(new IllegalStateException("boom")));
+
+        StepVerifier.create(gateway.deliverMessage("c", "u", DeliverMessage.builder().build())).verifyComplete();
+        StepVerifier.create(gateway.deliverMessage("c", "u", DeliverMessage.builder().build()))
+                .verifyError(IllegalStateException.class);
+
+        assertThat(count("deliver_message", "success")).isEqualTo(1);
+        assertThat(count("deliver_message", "error")).isEqualTo(1);
+        assertThat(registry.get(MeteredAsyncDataFlowGateway.IN_FLIGHT).gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRecordBatchSize() {
+        when(delegate.deliverBatch(anyList())).thenReturn(Mono.empty());
+        Delivery delivery = Delivery.builder().channelRef("c").userRef("u").build();
+
+        StepVerifier.create(gateway.deliverBatch(List.of(delivery, delivery, delivery))).verifyComplete();
+
+        assertThat(registry.get(MeteredAsyncDataFlowGateway.BATCH_SIZE).summary().totalAmount()).isEqualTo(3);
+        assertThat(count("deliver_batch", "success")).isEqualTo(1);
+    }
+
+    private long count(String operation, String outcome) {
+        return registry.get(MeteredAsyncDataFlowGateway.REQUESTS)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .timer()
+                .count();
+    }
+}
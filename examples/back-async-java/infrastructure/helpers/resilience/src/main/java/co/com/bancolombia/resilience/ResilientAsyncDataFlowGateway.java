@@ -0,0 +1,114 @@
+package co.com.bancolombia.resilience;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.DeliveryResult;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.ratelimiter.RequestNotPermitted;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Guards every gateway operation with its own rate limiter, bulkhead and circuit breaker, resolved
+ * by operation name from the Resilience4j registries. Calls that are not permitted fail at once
+ * with {@link GatewayOverloadedException} instead of waiting for the adapter connection pool.
+ * Streams only go through the bulkhead and rate limiter: a stream lasts as long as its source and
+ * reports failed deliveries as results, so there is no call outcome for a circuit breaker to judge.
+ */
+public class ResilientAsyncDataFlowGateway implements AsyncDataFlowGateway {
+    public static final String GENERATE_CREDENTIALS = "generateCredentials";
+    public static final String DELIVER_MESSAGE = "deliverMessage";
+    public static final String DELIVER_BATCH = "deliverBatch";
+    public static final String DELIVER_STREAM = "deliverStream";
+
+    private final AsyncDataFlowGateway delegate;
+    private final Guard credentialsGuard;
+    private final Guard deliverGuard;
+    private final Guard batchGuard;
+    private final Guard streamGuard;
+
+    public ResilientAsyncDataFlowGateway(AsyncDataFlowGateway delegate,
+                                         CircuitBreakerRegistry circuitBreakers,
+                                         BulkheadRegistry bulkheads,
+                                         RateLimiterRegistry rateLimiters) {
+        this.delegate = delegate;
+        this.credentialsGuard = new Guard(GENERATE_CREDENTIALS, circuitBreakers, bulkheads, rateLimiters);
+        this.deliverGuard = new Guard(DELIVER_MESSAGE, circuitBreakers, bulkheads, rateLimiters);
+        this.batchGuard = new Guard(DELIVER_BATCH, circuitBreakers, bulkheads, rateLimiters);
+        this.streamGuard = new Guard(DELIVER_STREAM, circuitBreakers, bulkheads, rateLimiters);
+    }
+
+    @Override
+    public Mono<Credentials> generateCredentials(String userIdentifier) {
+        return credentialsGuard.apply(delegate.generateCredentials(userIdentifier));
+    }
+
+    @Override
+    public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+        return deliverGuard.apply(delegate.deliverMessage(channelRef, userRef, message));
+    }
+
+    @Override
+    public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+        return batchGuard.apply(delegate.deliverBatch(deliveries));
+    }
+
+    @Override
+    public Flux<DeliveryResult> deliverMessages(Flux<Delivery> deliveries) {
+        return streamGuard.applyStream(delegate.deliverMessages(deliveries));
+    }
+
+    private static final class Guard {
+        private final String operation;
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final RateLimiter rateLimiter;
+
+        private Guard(String operation, CircuitBreakerRegistry circuitBreakers, BulkheadRegistry bulkheads,
+                      RateLimiterRegistry rateLimiters) {
+            this.operation = operation;
+            this.circuitBreaker = circuitBreakers.circuitBreaker(operation);
+            this.bulkhead = bulkheads.bulkhead(operation);
+            this.rateLimiter = rateLimiters.rateLimiter(operation);
+        }
+
+        // the breaker is innermost so it only judges calls that actually reached the adapter
+        private <T> Mono<T> apply(Mono<T> call) {
+            return call
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(RateLimiterOperator.of(rateLimiter))
+                    .onErrorMap(Guard::isShed, error ->
+                            new GatewayOverloadedException(operation + " shed: " + error.getMessage(), error));
+        }
+
+        private <T> Flux<T> applyStream(Flux<T> stream) {
+            return stream
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(RateLimiterOperator.of(rateLimiter))
+                    .onErrorMap(Guard::isShed, error ->
+                            new GatewayOverloadedException(operation + " shed: " + error.getMessage(), error));
+        }
+
+        private static boolean isShed(Throwable error) {
+            return error instanceof CallNotPermittedException
+                    || error instanceof BulkheadFullException
+                    || error instanceof RequestNotPermitted;
+        }
+    }
+}
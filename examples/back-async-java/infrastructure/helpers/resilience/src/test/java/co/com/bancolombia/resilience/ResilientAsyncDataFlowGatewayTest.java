@@ -0,0 +1,77 @@
+package co.com.bancolombia.resilience;
+
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.GatewayOverloadedException;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResilientAsyncDataFlowGatewayTest {
+
+    private final AsyncDataFlowGateway delegate = mock(AsyncDataFlowGateway.class);
+    private final DeliverMessage message = DeliverMessage.builder().messageId("m1").build();
+
+    @Test
+    void shouldShedWhenBulkheadIsFull() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        when(delegate.deliverMessage(any(), any(), any())).thenReturn(pending.asMono());
+        AsyncDataFlowGateway gateway = gateway(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build(), RateLimiterConfig.ofDefaults());
+
+        gateway.deliverMessage("c", "u", message).subscribe();
+
+        StepVerifier.create(gateway.deliverMessage("c", "u", message))
+                .verifyError(GatewayOverloadedException.class);
+        pending.tryEmitEmpty();
+    }
+
+    @Test
+    void shouldShedWhenRateLimitIsExceeded() {
+        when(delegate.deliverMessage(any(), any(), any())).thenReturn(Mono.empty());
+        AsyncDataFlowGateway gateway = gateway(BulkheadConfig.ofDefaults(), RateLimiterConfig.custom()
+                .limitForPeriod(1)
+                .limitRefreshPeriod(Duration.ofMinutes(1))
+                .timeoutDuration(Duration.ZERO)
+                .build());
+
+        StepVerifier.create(gateway.deliverMessage("c", "u", message)).verifyComplete();
+        StepVerifier.create(gateway.deliverMessage("c", "u", message))
+                .verifyError(GatewayOverloadedException.class);
+    }
+
+    @Test
+    void shouldShedWhenCircuitIsOpen() {
+        when(delegate.generateCredentials(any())).thenReturn(Mono.error(new IllegalStateException("down")));
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(2)
+                .minimumNumberOfCalls(2)
+                .build());
+        AsyncDataFlowGateway gateway = new ResilientAsyncDataFlowGateway(delegate, circuitBreakers,
+                BulkheadRegistry.ofDefaults(), RateLimiterRegistry.ofDefaults());
+
+        StepVerifier.create(gateway.generateCredentials("u")).verifyError(IllegalStateException.class);
+        StepVerifier.create(gateway.generateCredentials("u")).verifyError(IllegalStateException.class);
+        StepVerifier.create(gateway.generateCredentials("u")).verifyError(GatewayOverloadedException.class);
+    }
+
+    private AsyncDataFlowGateway gateway(BulkheadConfig bulkhead, RateLimiterConfig rateLimiter) {
+        return new ResilientAsyncDataFlowGateway(delegate, CircuitBreakerRegistry.ofDefaults(),
+                BulkheadRegistry.of(bulkhead), RateLimiterRegistry.of(rateLimiter));
+    }
+}
@@ -0,0 +1,85 @@
+package co.com.bancolombia.benchmark.consumer;
+
+import co.com.bancolombia.consumer.models.DTODeliverBatch;
+import co.com.bancolombia.consumer.models.DTODeliverMessage;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of a domain DeliverMessage to the rest-consumer DTO and its JSON or CBOR serialization, the
+ * CPU part of every DirectAdapter delivery, for single messages and deliver_batch requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DeliverMessageMappingBenchmark {
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private final ObjectMapper cborMapper = CBORMapper.builder().build();
+    private DeliverMessage message;
+
+    @Setup
+    public void setUp() {
+        message = DeliverMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .CorrelationId(UUID.randomUUID().toString())
+                .channelRef("beec634cc4f4a7d4f3b8a1b9e8c9d2a1.7b6f1c0e8e2f4f2b9e5a1d3c4b6a8e0f")
+                .eventName("businessEvent")
+                .messageData(Message.builder()
+                        .code("100")
+                        .title("process after 5000")
+                        .detail("response for id:" + UUID.randomUUID())
+                        .severity("INFO")
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public DTODeliverMessage mapping() {
+        return toDto(message);
+    }
+
+    @Benchmark
+    public byte[] mappingAndSerialization() {
+        return mapper.writeValueAsBytes(toDto(message));
+    }
+
+    @Benchmark
+    public byte[] mappingAndCborSerialization() {
+        return cborMapper.writeValueAsBytes(toDto(message));
+    }
+
+    @Benchmark
+    public byte[] batchOfTenSerialization() {
+        List<DTODeliverMessage> messages = new ArrayList<>(10);
+        for (int i = 0; i < 10; i++) {
+            messages.add(toDto(message));
+        }
+        return mapper.writeValueAsBytes(new DTODeliverBatch(messages));
+    }
+
+    private static DTODeliverMessage toDto(DeliverMessage deliverMessage) {
+        return DTODeliverMessage.builder()
+                .channelRef(deliverMessage.getChannelRef())
+                .correlationId(deliverMessage.getCorrelationId())
+                .eventName(deliverMessage.getEventName())
+                .messageId(deliverMessage.getMessageId())
+                .messageData(deliverMessage.getMessageData())
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package co.com.bancolombia.benchmark.consumer;
+
+import co.com.bancolombia.benchmark.support.MockChannelSender;
+import co.com.bancolombia.consumer.DirectAdapter;
+import co.com.bancolombia.consumer.batch.DeliverBatchDispatcher;
+import co.com.bancolombia.consumer.codec.DeliveryPayloadWriter;
+import co.com.bancolombia.consumer.codec.PayloadFormat;
+import co.com.bancolombia.consumer.routing.ChannelSenderRouter;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end deliverMessage through WebClient against an in-process channel sender, with and
+ * without micro-batching. Sample time mode reports the latency percentiles of each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class DirectAdapterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean batch;
+
+    @Param({"JSON", "CBOR"})
+    public PayloadFormat format;
+
+    private MockChannelSender sender;
+    private DeliverBatchDispatcher dispatcher;
+    private DirectAdapter adapter;
+    private DeliverMessage message;
+
+    @Setup
+    public void setUp() {
+        sender = new MockChannelSender();
+        WebClient client = WebClient.builder()
+                .baseUrl(sender.baseUrl())
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .build();
+        DeliveryPayloadWriter payloadWriter = new DeliveryPayloadWriter(format);
+        ChannelSenderRouter router = ChannelSenderRouter.single(client);
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (batch) {
+            dispatcher = new DeliverBatchDispatcher(router, payloadWriter, DeliverBatchDispatcher.MAX_BATCH_SIZE,
+                    Duration.ofMillis(2), 16, 10_000);
+            beans = new StaticListableBeanFactory(Map.of("deliverBatchDispatcher", dispatcher));
+        }
+        adapter = new DirectAdapter(client, beans.getBeanProvider(DeliverBatchDispatcher.class), payloadWriter,
+                router);
+        adapter.applicationRef = "back-async";
+        message = DeliverMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .CorrelationId(UUID.randomUUID().toString())
+                .channelRef("channel-ref")
+                .eventName("businessEvent")
+                .messageData(Message.builder().code("100").title("title").detail("detail").severity("INFO").build())
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.destroy();
+        }
+        sender.close();
+    }
+
+    @Benchmark
+    public void deliverMessage() {
+        adapter.deliverMessage(message.getChannelRef(), "user-ref", message).block();
+    }
+
+    @Benchmark
+    public Object generateCredentials() {
+        return adapter.generateCredentials("user-ref").block();
+    }
+}
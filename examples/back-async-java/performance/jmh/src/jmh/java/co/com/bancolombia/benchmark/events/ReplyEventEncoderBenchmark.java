@@ -0,0 +1,90 @@
+package co.com.bancolombia.benchmark.events;
+
+import co.com.bancolombia.events.encoder.ReplyEventEncoder;
+import co.com.bancolombia.events.model.DTODeliverMessage;
+import co.com.bancolombia.idgenerator.TimeOrderedIdGenerator;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Message;
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.jackson.JsonCloudEventData;
+import io.cloudevents.jackson.JsonFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the bridge reply event built through a JsonNode tree, as BridgeAdapter used to do,
+ * against {@link ReplyEventEncoder}. Both variants include the CloudEvent JSON serialization
+ * done before publishing to the broker.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReplyEventEncoderBenchmark {
+    private static final String USER_REF = "dbb3e0a4-c3fb-4c87-86b9-cc82c54eda91";
+
+    private final ObjectMapper mapper = JsonMapper.builder().build();
+    private final JsonFormat format = new JsonFormat();
+    private final ReplyEventEncoder encoder = new ReplyEventEncoder(new TimeOrderedIdGenerator());
+    private DeliverMessage message;
+
+    @Setup
+    public void setUp() {
+        message = DeliverMessage.builder()
+                .messageId(UUID.randomUUID().toString())
+                .CorrelationId(UUID.randomUUID().toString())
+                .channelRef("beec634cc4f4a7d4f3b8a1b9e8c9d2a1.7b6f1c0e8e2f4f2b9e5a1d3c4b6a8e0f")
+                .eventName("businessEvent")
+                .messageData(Message.builder()
+                        .code("100")
+                        .title("process after 5000")
+                        .detail("response for id:" + UUID.randomUUID())
+                        .severity("INFO")
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] treeBasedEvent() {
+        DTODeliverMessage deliverMessage = DTODeliverMessage.builder()
+                .request(new DTODeliverMessage.Request(USER_REF))
+                .reply(DTODeliverMessage.Reply.builder()
+                        .correlationId(message.getCorrelationId())
+                        .eventName(message.getEventName())
+                        .messageData(message.getMessageData())
+                        .messageId(message.getMessageId())
+                        .build())
+                .build();
+
+        CloudEvent event = CloudEventBuilder.v1()
+                .withId(UUID.randomUUID().toString())
+                .withSource(URI.create("https://reactive-commons.org/foos"))
+                .withType(ReplyEventEncoder.EVENT_TYPE)
+                .withTime(OffsetDateTime.now())
+                .withData("application/json", JsonCloudEventData.wrap(mapper.valueToTree(deliverMessage)))
+                .build();
+        return format.serialize(event);
+    }
+
+    @Benchmark
+    public byte[] encodedEvent() {
+        return format.serialize(encoder.encode(USER_REF, message));
+    }
+
+    @Benchmark
+    public byte[] encodedDataOnly() {
+        return encoder.encodeData(USER_REF, message);
+    }
+}
@@ -0,0 +1,49 @@
+package co.com.bancolombia.benchmark.idgenerator;
+
+import co.com.bancolombia.idgenerator.TimeOrderedIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id generation with many threads calling at once, as the event loops do on the request path:
+ * {@link UUID#randomUUID()} against {@link TimeOrderedIdGenerator}, and the digits of the bridge
+ * document id drawn from one shared {@link Random} against {@link ThreadLocalRandom}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class IdGeneratorBenchmark {
+    private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+    private final Random sharedRandom = new Random();
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String timeOrderedId() {
+        return generator.newId();
+    }
+
+    @Benchmark
+    public int sharedRandomDigit() {
+        return sharedRandom.nextInt(10);
+    }
+
+    @Benchmark
+    public int threadLocalRandomDigit() {
+        return ThreadLocalRandom.current().nextInt(10);
+    }
+}
@@ -0,0 +1,50 @@
+package co.com.bancolombia.benchmark.support;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * In-process stand-in for the channel sender REST API. Unlike MockWebServer it does not record
+ * requests, so it can absorb the millions of calls of a benchmark run at constant memory.
+ */
+public final class MockChannelSender implements AutoCloseable {
+    private static final String BASE_PATH = "/ext/channel";
+    private static final String OK = "{\"result\":\"Ok\"}";
+    private static final String CREDENTIALS = "{\"channel_ref\":\"ref\",\"channel_secret\":\"secret\"}";
+
+    private final DisposableServer server;
+
+    public MockChannelSender() {
+        server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .post(BASE_PATH + "/create", (req, res) -> reply(req, res, HttpResponseStatus.OK, CREDENTIALS))
+                        .post(BASE_PATH + "/deliver_message", (req, res) -> reply(req, res, HttpResponseStatus.ACCEPTED, OK))
+                        .post(BASE_PATH + "/deliver_batch", (req, res) -> reply(req, res, HttpResponseStatus.ACCEPTED, OK)))
+                .bindNow();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.port() + BASE_PATH;
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static Publisher<Void> reply(HttpServerRequest request, HttpServerResponse response,
+                                         HttpResponseStatus status, String body) {
+        return request.receive().then()
+                .then(response.status(status)
+                        .header("content-type", "application/json")
+                        .sendString(Mono.just(body))
+                        .then());
+    }
+}
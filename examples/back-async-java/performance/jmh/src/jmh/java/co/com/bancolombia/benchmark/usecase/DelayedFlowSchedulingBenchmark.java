@@ -0,0 +1,73 @@
+package co.com.bancolombia.benchmark.usecase;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.idgenerator.TimeOrderedIdGenerator;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import co.com.bancolombia.usecase.business.BusinessUseCase;
+import co.com.bancolombia.usecase.delivery.DelayedDeliveryScheduler;
+import co.com.bancolombia.usecase.delivery.DelayedDeliverySettings;
+import co.com.bancolombia.usecase.delivery.OverflowPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of accepting a delayed business flow: message construction plus scheduling on the timing
+ * wheel. The gateway does no I/O so only the use case overhead is measured. Old entries are
+ * dropped on overflow so long delays keep a steady state instead of rejecting.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class DelayedFlowSchedulingBenchmark {
+
+    @Param({"0", "5000"})
+    public String delay;
+
+    private DelayedDeliveryScheduler scheduler;
+    private BusinessUseCase useCase;
+
+    @Setup
+    public void setUp() {
+        AsyncDataFlowGateway gateway = new AsyncDataFlowGateway() {
+            @Override
+            public Mono<Credentials> generateCredentials(String userIdentifier) {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+                return Mono.empty();
+            }
+        };
+        scheduler = new DelayedDeliveryScheduler(gateway, DelayedDeliverySettings.builder()
+                .queueCapacity(1_000_000)
+                .overflowPolicy(OverflowPolicy.DROP_OLDEST)
+                .drainTimeout(Duration.ofSeconds(1))
+                .build());
+        useCase = new BusinessUseCase(gateway, scheduler, new TimeOrderedIdGenerator());
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Benchmark
+    public Object asyncBusinessFlow() {
+        return useCase.asyncBusinessFlow(delay, "channel-ref", "user-ref", "correlation-id").block();
+    }
+}
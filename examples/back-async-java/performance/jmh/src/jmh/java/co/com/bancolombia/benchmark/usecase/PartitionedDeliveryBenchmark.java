@@ -0,0 +1,122 @@
+package co.com.bancolombia.benchmark.usecase;
+
+import co.com.bancolombia.model.async.Credentials;
+import co.com.bancolombia.model.async.DeliverMessage;
+import co.com.bancolombia.model.async.Delivery;
+import co.com.bancolombia.model.async.gateways.AsyncDataFlowGateway;
+import co.com.bancolombia.usecase.delivery.DelayedDeliveryScheduler;
+import co.com.bancolombia.usecase.delivery.DelayedDeliverySettings;
+import co.com.bancolombia.usecase.delivery.ExecutionMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers 200k immediate flows over 10k channels with the partitioned execution mode at 1, 2, 4 and
+ * 8 lanes, against a non blocking gateway that spends a fixed amount of CPU per delivery and keeps a
+ * counter per channel in a plain map owned by each lane thread. Run time is the JMH score. The gateway
+ * sits right under the scheduler, without the decorators, whose shared state the lanes do not confine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PartitionedDeliveryBenchmark {
+    private static final int FLOWS = 200_000;
+    private static final int CHANNELS = 10_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int partitions;
+
+    @Param({"200"})
+    public long cpuTokensPerDelivery;
+
+    private final DeliverMessage[] messages = new DeliverMessage[FLOWS];
+    // every channel is only touched by its lane thread, so the per lane maps need no locking
+    private final ThreadLocal<Map<String, Integer>> deliveriesPerChannel = ThreadLocal.withInitial(HashMap::new);
+    private DelayedDeliveryScheduler scheduler;
+    private CountDownLatch delivered;
+
+    @Setup(Level.Trial)
+    public void createMessages() {
+        for (int i = 0; i < FLOWS; i++) {
+            messages[i] = DeliverMessage.builder()
+                    .messageId(Integer.toString(i))
+                    .channelRef("channel-" + i % CHANNELS)
+                    .eventName("businessEvent")
+                    .build();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        delivered = new CountDownLatch(FLOWS);
+        scheduler = new DelayedDeliveryScheduler(new CpuBoundGateway(), DelayedDeliverySettings.builder()
+                .maxConcurrency(1024)
+                .queueCapacity(FLOWS)
+                .tickDuration(Duration.ofMillis(1))
+                .executionMode(ExecutionMode.PARTITIONED)
+                .partitions(partitions)
+                .build());
+    }
+
+    @Benchmark
+    public void scheduleAndDeliver() throws InterruptedException {
+        for (DeliverMessage message : messages) {
+            scheduler.schedule(Duration.ZERO, message.getChannelRef(), "user-ref", message).subscribe();
+        }
+        if (!delivered.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(delivered.getCount() + " flows not delivered");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    private final class CpuBoundGateway implements AsyncDataFlowGateway {
+
+        @Override
+        public Mono<Credentials> generateCredentials(String userIdentifier) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> deliverMessage(String channelRef, String userRef, DeliverMessage message) {
+            return deliverBatch(List.of(Delivery.builder().channelRef(channelRef).userRef(userRef).message(message).build()));
+        }
+
+        @Override
+        public Mono<Void> deliverBatch(List<Delivery> deliveries) {
+            Map<String, Integer> counters = deliveriesPerChannel.get();
+            for (Delivery delivery : deliveries) {
+                Blackhole.consumeCPU(cpuTokensPerDelivery);
+                counters.merge(delivery.getChannelRef(), 1, Integer::sum);
+                delivered.countDown();
+            }
+            return Mono.empty();
+        }
+    }
+}
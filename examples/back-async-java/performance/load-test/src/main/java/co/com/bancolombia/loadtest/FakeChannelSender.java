@@ -0,0 +1,90 @@
+package co.com.bancolombia.loadtest;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process stand-in for the channel sender: the direct API under {@code /ext/channel} and the
+ * bridge credentials endpoint {@code POST /ext/channel}. Every answer is delayed by the configured
+ * latency plus a uniform jitter, and answered with 503 at the configured error rate.
+ */
+public final class FakeChannelSender implements AutoCloseable {
+    static final String BASE_PATH = "/ext/channel";
+    private static final String OK = "{\"result\":\"Ok\"}";
+    private static final String CREDENTIALS = "{\"channel_ref\":\"ref\",\"channel_secret\":\"secret\"}";
+    private static final String BRIDGE_CREDENTIALS = "{\"result\":" + CREDENTIALS + "}";
+
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final DisposableServer server;
+
+    public FakeChannelSender(Duration latency, Duration jitter, double errorRate) {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes
+                        .post(BASE_PATH, (req, res) -> reply(req, res, HttpResponseStatus.OK, BRIDGE_CREDENTIALS))
+                        .post(BASE_PATH + "/create", (req, res) -> reply(req, res, HttpResponseStatus.OK, CREDENTIALS))
+                        .post(BASE_PATH + "/deliver_message", (req, res) -> reply(req, res, HttpResponseStatus.ACCEPTED, OK))
+                        .post(BASE_PATH + "/deliver_batch", (req, res) -> reply(req, res, HttpResponseStatus.ACCEPTED, OK)))
+                .bindNow();
+    }
+
+    public String rootUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    public Map<String, Long> getRequests() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        requests.forEach((path, count) -> counts.put(path, count.sum()));
+        return counts;
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> reply(HttpServerRequest request, HttpServerResponse response,
+                                  HttpResponseStatus status, String body) {
+        requests.computeIfAbsent(request.path(), path -> new LongAdder()).increment();
+        boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        if (fail) {
+            injectedErrors.increment();
+        }
+        return request.receive().then()
+                .then(Mono.delay(delay()))
+                .then(fail
+                        ? response.status(HttpResponseStatus.SERVICE_UNAVAILABLE).send().then()
+                        : response.status(status)
+                        .header("content-type", "application/json")
+                        .sendString(Mono.just(body))
+                        .then());
+    }
+
+    private Duration delay() {
+        long jitterNanos = jitter.toNanos();
+        return jitterNanos > 0 ? latency.plusNanos(ThreadLocalRandom.current().nextLong(jitterNanos)) : latency;
+    }
+}
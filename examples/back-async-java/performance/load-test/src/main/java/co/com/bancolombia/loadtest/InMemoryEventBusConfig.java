@@ -0,0 +1,36 @@
+package co.com.bancolombia.loadtest;
+
+import org.reactivecommons.api.domain.DomainEventBus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replaces the RabbitMQ event bus in bridge mode with one that confirms every emitted event after
+ * a fixed latency, standing in for the broker confirm.
+ */
+@Configuration
+@ConditionalOnProperty(value = "adapter.reply-mode", havingValue = "BRIDGE")
+public class InMemoryEventBusConfig {
+    static final LongAdder EMITTED = new LongAdder();
+
+    @Bean
+    @Primary
+    public DomainEventBus inMemoryDomainEventBus(@Value("${load-test.broker-latency:2ms}") Duration latency) {
+        // a proxy keeps the stand-in independent of the exact set of emit overloads of the bus
+        return (DomainEventBus) Proxy.newProxyInstance(DomainEventBus.class.getClassLoader(),
+                new Class<?>[]{DomainEventBus.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "InMemoryDomainEventBus";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> Mono.delay(latency).doOnNext(tick -> EMITTED.increment()).then();
+                });
+    }
+}
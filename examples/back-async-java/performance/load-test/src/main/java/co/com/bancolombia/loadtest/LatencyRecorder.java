@@ -0,0 +1,33 @@
+package co.com.bancolombia.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every latency of a run, which for the rates and durations of a load test is a few MB at most,
+ * and computes exact percentiles once the run is over.
+ */
+final class LatencyRecorder {
+    private long[] values = new long[1 << 16];
+    private int size;
+
+    synchronized void record(long nanos) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+    }
+
+    synchronized long[] snapshot() {
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)];
+    }
+}
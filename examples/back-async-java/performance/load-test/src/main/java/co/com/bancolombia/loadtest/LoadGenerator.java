@@ -0,0 +1,96 @@
+package co.com.bancolombia.loadtest;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+/**
+ * Open loop load generator: requests are issued at the target rate whatever the response times,
+ * and latency is measured from the moment a request was due rather than from when it was sent, so
+ * a stalled server shows up in the percentiles instead of lowering the offered load. Requests over
+ * the outstanding cap are not sent and counted as shed.
+ */
+final class LoadGenerator implements AutoCloseable {
+    private static final Duration TICK = Duration.ofMillis(1);
+
+    private final ConnectionProvider connections;
+    private final HttpClient client;
+    private final int maxOutstanding;
+
+    LoadGenerator(String baseUrl, int maxOutstanding) {
+        this.connections = ConnectionProvider.builder("load-generator")
+                .maxConnections(maxOutstanding)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.client = HttpClient.create(connections).baseUrl(baseUrl);
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    Mono<Result> run(String name, LongFunction<String> uri, int rps, Duration duration) {
+        return Mono.defer(() -> {
+            LatencyRecorder latencies = new LatencyRecorder();
+            LongAdder errors = new LongAdder();
+            LongAdder shed = new LongAdder();
+            AtomicInteger outstanding = new AtomicInteger();
+            AtomicLong issued = new AtomicLong();
+            long start = System.nanoTime();
+            long total = rps * duration.toNanos() / 1_000_000_000L;
+            double intervalNanos = 1_000_000_000d / rps;
+            return Flux.interval(TICK)
+                    .concatMapIterable(tick -> {
+                        long elapsed = System.nanoTime() - start;
+                        long due = Math.min(total, (long) (elapsed / intervalNanos));
+                        long from = issued.getAndSet(due);
+                        return LongStream.range(from, due).boxed().toList();
+                    })
+                    .takeUntil(sequence -> sequence >= total - 1)
+                    .flatMap(sequence -> {
+                        long dueAt = start + (long) (sequence * intervalNanos);
+                        if (outstanding.incrementAndGet() > maxOutstanding) {
+                            outstanding.decrementAndGet();
+                            shed.increment();
+                            return Mono.empty();
+                        }
+                        return client.get().uri(uri.apply(sequence))
+                                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                                .doOnNext(status -> {
+                                    if (status >= 400) {
+                                        errors.increment();
+                                    }
+                                })
+                                .doOnError(error -> errors.increment())
+                                .onErrorResume(error -> Mono.empty())
+                                .doFinally(signal -> {
+                                    latencies.record(System.nanoTime() - dueAt);
+                                    outstanding.decrementAndGet();
+                                });
+                    }, Integer.MAX_VALUE)
+                    .then(Mono.fromSupplier(() -> new Result(name, rps, latencies.snapshot(), errors.sum(), shed.sum(),
+                            Duration.ofNanos(System.nanoTime() - start))));
+        });
+    }
+
+    @Override
+    public void close() {
+        connections.dispose();
+    }
+
+    record Result(String name, int targetRps, long[] latencies, long errors, long shed, Duration elapsed) {
+
+        double throughput() {
+            return latencies.length / (elapsed.toNanos() / 1_000_000_000d);
+        }
+
+        double percentileMillis(double percentile) {
+            return LatencyRecorder.percentile(latencies, percentile) / 1_000_000d;
+        }
+    }
+}
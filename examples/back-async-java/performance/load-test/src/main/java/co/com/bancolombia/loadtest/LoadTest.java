@@ -0,0 +1,119 @@
+package co.com.bancolombia.loadtest;
+
+import co.com.bancolombia.MainApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Starts the application in process against a {@link FakeChannelSender} (and, in bridge mode, an
+ * in-memory event bus), then drives {@code /api/credentials} and {@code /api/business} at their target
+ * rates for each reply mode and prints throughput, latency percentiles and heap and GC figures. The
+ * generator runs in the same JVM, so heap and GC figures include its own, comparatively small, share.
+ */
+public final class LoadTest {
+    private static final long MB = 1024 * 1024;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        LoadTestSettings settings = LoadTestSettings.fromArgs(args);
+        for (String mode : settings.getModes()) {
+            run(mode, settings);
+        }
+    }
+
+    private static void run(String mode, LoadTestSettings settings) {
+        try (FakeChannelSender sender = new FakeChannelSender(settings.getSenderLatency(), settings.getSenderJitter(),
+                settings.getSenderErrorRate());
+             ConfigurableApplicationContext app = start(mode, sender, settings);
+             LoadGenerator generator = new LoadGenerator("http://127.0.0.1:"
+                     + app.getEnvironment().getProperty("local.server.port"), settings.getMaxOutstanding())) {
+            drive(generator, mode + "-warmup", settings, settings.getWarmup()).block();
+
+            System.gc();
+            long gcCount = gcCount();
+            long gcMillis = gcMillis();
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+            List<LoadGenerator.Result> results = drive(generator, mode, settings, settings.getDuration()).block();
+
+            System.out.printf(Locale.ROOT, "%n== %s ==%n", mode);
+            System.out.printf(Locale.ROOT, "%-12s %8s %10s %8s %8s %8s %8s %8s %7s %6s%n", "endpoint", "target",
+                    "achieved", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "shed");
+            for (LoadGenerator.Result result : results) {
+                System.out.printf(Locale.ROOT, "%-12s %8d %10.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7d %6d%n",
+                        result.name(), result.targetRps(), result.throughput(), result.percentileMillis(50),
+                        result.percentileMillis(90), result.percentileMillis(99), result.percentileMillis(99.9),
+                        result.percentileMillis(100), result.errors(), result.shed());
+            }
+            System.out.printf(Locale.ROOT, "heap used %d MB, peak %d MB; gc %d collections, %d ms%n",
+                    heapUsed() / MB, heapPeak() / MB, gcCount() - gcCount, gcMillis() - gcMillis);
+            System.out.printf(Locale.ROOT, "sender requests %s, injected errors %d; broker events %d%n",
+                    sender.getRequests(), sender.getInjectedErrors(), InMemoryEventBusConfig.EMITTED.sum());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String mode, FakeChannelSender sender,
+                                                        LoadTestSettings settings) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("adapter.reply-mode", mode);
+        properties.put("adapter.restconsumer.url", sender.rootUrl() + FakeChannelSender.BASE_PATH);
+        properties.put("adapter.restconsumer.url-bridge", sender.rootUrl());
+        properties.put("load-test.broker-latency", settings.getBrokerLatency().toMillis() + "ms");
+        return new SpringApplicationBuilder(MainApplication.class, InMemoryEventBusConfig.class)
+                .properties(properties)
+                .run();
+    }
+
+    private static Mono<List<LoadGenerator.Result>> drive(LoadGenerator generator, String runId,
+                                                          LoadTestSettings settings, Duration duration) {
+        long delay = settings.getBusinessDelay().toMillis();
+        return Mono.zip(
+                generator.run("credentials", sequence -> "/api/credentials?user_ref=user-" + sequence % 10_000,
+                        settings.getCredentialsRps(), duration),
+                generator.run("business", sequence -> "/api/business?delay=" + delay
+                                + "&channel_ref=channel-" + sequence % 1_000
+                                + "&user_ref=user-" + sequence % 10_000
+                                + "&correlationId=" + runId + "-" + sequence,
+                        settings.getBusinessRps(), duration),
+                List::of);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // the sum of the pool peaks is an upper bound, pools do not peak at the same time
+    private static long heapPeak() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+}
@@ -0,0 +1,76 @@
+package co.com.bancolombia.loadtest;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Builder(toBuilder = true)
+@Getter
+public class LoadTestSettings {
+    @Builder.Default
+    private final List<String> modes = List.of("DIRECT", "BRIDGE");
+    @Builder.Default
+    private final int credentialsRps = 200;
+    @Builder.Default
+    private final int businessRps = 500;
+    @Builder.Default
+    private final Duration warmup = Duration.ofSeconds(10);
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration businessDelay = Duration.ofMillis(100);
+    @Builder.Default
+    private final int maxOutstanding = 2000;
+    @Builder.Default
+    private final Duration senderLatency = Duration.ofMillis(5);
+    @Builder.Default
+    private final Duration senderJitter = Duration.ofMillis(5);
+    @Builder.Default
+    private final double senderErrorRate = 0;
+    @Builder.Default
+    private final Duration brokerLatency = Duration.ofMillis(2);
+
+    /**
+     * Reads {@code --name=value} arguments, for example {@code --modes=DIRECT --business-rps=1000 --duration=1m}.
+     */
+    public static LoadTestSettings fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            String[] pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            values.put(pair[0], pair[1]);
+        }
+        LoadTestSettingsBuilder builder = builder();
+        apply(values, "modes", value -> builder.modes(Arrays.asList(value.toUpperCase().split(","))));
+        apply(values, "credentials-rps", value -> builder.credentialsRps(Integer.parseInt(value)));
+        apply(values, "business-rps", value -> builder.businessRps(Integer.parseInt(value)));
+        apply(values, "warmup", value -> builder.warmup(DurationStyle.detectAndParse(value)));
+        apply(values, "duration", value -> builder.duration(DurationStyle.detectAndParse(value)));
+        apply(values, "business-delay", value -> builder.businessDelay(DurationStyle.detectAndParse(value)));
+        apply(values, "max-outstanding", value -> builder.maxOutstanding(Integer.parseInt(value)));
+        apply(values, "sender-latency", value -> builder.senderLatency(DurationStyle.detectAndParse(value)));
+        apply(values, "sender-jitter", value -> builder.senderJitter(DurationStyle.detectAndParse(value)));
+        apply(values, "sender-error-rate", value -> builder.senderErrorRate(Double.parseDouble(value)));
+        apply(values, "broker-latency", value -> builder.brokerLatency(DurationStyle.detectAndParse(value)));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown arguments " + values.keySet());
+        }
+        return builder.build();
+    }
+
+    private static void apply(Map<String, String> values, String name, Consumer<String> setter) {
+        String value = values.remove(name);
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+}